@@ -0,0 +1,24 @@
+package com.folkislove.common.dto.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CursorPage<T> {
+
+    private List<T> content;
+    private String nextCursor;  // null - дальше ничего нет
+    private boolean hasNext;
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return CursorPage.<R>builder()
+            .content(content.stream().<R>map(mapper).toList())
+            .nextCursor(nextCursor)
+            .hasNext(hasNext)
+            .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.folkislove.common.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SearchHitResponse {
+
+    private String type;        // POST или COMMENT
+    private Long id;
+    private Long postId;
+    private String title;       // заголовок поста, для комментария - null
+    private String snippet;
+    private Float score;
+}
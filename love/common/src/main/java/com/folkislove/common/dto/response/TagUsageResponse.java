@@ -0,0 +1,15 @@
+package com.folkislove.common.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TagUsageResponse {
+
+    private Long id;
+    private String name;
+    private Long posts;
+    private Long events;
+    private Long users;
+}
@@ -0,0 +1,33 @@
+package com.folkislove.love.config;
+
+import com.folkislove.love.util.ConnectionHoldTimer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceMetricsConfig {
+
+    /**
+     * Оборачивает пул соединений, чтобы видеть, какие эндпоинты дольше всего держат соединение.
+     * static - чтобы post processor создавался раньше остальных бинов конфигурации.
+     */
+    @Bean
+    public static BeanPostProcessor connectionHoldTimerPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTimer)) {
+                    return new ConnectionHoldTimer(dataSource, meterRegistry::getIfAvailable);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,26 +1,39 @@
 package com.folkislove.love.config;
 
 import com.folkislove.love.filter.JwtFilter;
+import com.folkislove.love.filter.RateLimitFilter;
+import com.folkislove.love.security.OffloadingPasswordEncoder;
+import com.folkislove.love.security.PasswordHashCalibrator;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 
+import java.time.Duration;
+
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @AllArgsConstructor
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -31,22 +44,57 @@ public class SecurityConfig {
                     auth.requestMatchers("/api/auth/**").permitAll();
                     auth.requestMatchers("/v3/api-docs/**").permitAll();
                     auth.requestMatchers("/swagger-ui/**").permitAll();
+                    auth.requestMatchers("/actuator/health").permitAll();
+                    auth.requestMatchers("/actuator/**").hasRole("ADMIN");
                     auth.requestMatchers(HttpMethod.GET, "/api/posts/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/events/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/tags/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/comments/**").permitAll();
+                    auth.requestMatchers(HttpMethod.GET, "/api/search").permitAll();
                     auth.anyRequest().authenticated();
                 }
             )
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtFilter.class)
             .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+        MeterRegistry meterRegistry,
+        @Value("${auth.hashing.threads:0}") int threads,
+        @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+        @Value("${auth.hashing.wait-timeout-ms:5000}") long waitTimeoutMs,
+        @Value("${auth.hashing.strength:12}") int strength,
+        @Value("${auth.hashing.calibrate:false}") boolean calibrate,
+        @Value("${auth.hashing.target-ms:250}") long targetMs,
+        @Value("${auth.hashing.min-strength:10}") int minStrength,
+        @Value("${auth.hashing.max-strength:14}") int maxStrength
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // стоимость одна на весь кластер; замер только подсказывает значение для конфига
+        int hashStrength = strength;
+        if (calibrate) {
+            int suggested = PasswordHashCalibrator.calibrate(Duration.ofMillis(targetMs), minStrength, maxStrength);
+            if (suggested != hashStrength) {
+                log.info("auth.hashing.strength is {}, this node suggests {}", hashStrength, suggested);
+            }
+        }
+
+        Gauge.builder("auth.password.hash.strength", () -> hashStrength).register(meterRegistry);
+
+        return new OffloadingPasswordEncoder(
+            PasswordHashCalibrator.bcryptEncoder(hashStrength),
+            poolSize,
+            queueCapacity,
+            Duration.ofMillis(waitTimeoutMs),
+            meterRegistry
+        );
     }
 }
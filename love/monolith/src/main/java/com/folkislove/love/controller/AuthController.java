@@ -2,14 +2,17 @@ package com.folkislove.love.controller;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.folkislove.common.dto.request.AuthRequest;
 import com.folkislove.common.dto.request.RegisterRequest;
 import com.folkislove.common.dto.response.AuthResponse;
+import com.folkislove.common.dto.response.AvailabilityResponse;
 import com.folkislove.common.dto.response.UserResponse;
 import com.folkislove.love.mapper.UserMapper;
 import com.folkislove.love.model.User;
@@ -38,4 +41,26 @@ public class AuthController {
         User user = authService.register(request.getUsername(), request.getEmail(), request.getPassword());
         return ResponseEntity.status(HttpStatus.CREATED).body(userMapper.toDto(user));
     }
+
+    /**
+     * Проверка занятости username/email для формы регистрации.
+     * Проверяются только переданные параметры.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(
+        @RequestParam(required = false) String username,
+        @RequestParam(required = false) String email
+    ) {
+        var response = AvailabilityResponse.builder()
+            .usernameAvailable(username == null ? null : authService.isUsernameAvailable(username))
+            .emailAvailable(email == null ? null : authService.isEmailAvailable(email))
+            .build();
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout() {
+        authService.logout();
+        return ResponseEntity.noContent().build();
+    }
 }
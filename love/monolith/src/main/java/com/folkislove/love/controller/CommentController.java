@@ -1,10 +1,10 @@
 package com.folkislove.love.controller;
 
 import com.folkislove.common.dto.response.CommentResponse;
+import com.folkislove.common.dto.response.CursorPage;
 import com.folkislove.love.mapper.CommentMapper;
 import com.folkislove.love.model.Comment;
 import com.folkislove.love.service.CommentService;
-import com.folkislove.love.service.CurrentUserService;
 
 import lombok.AllArgsConstructor;
 
@@ -21,7 +21,6 @@ public class CommentController {
 
     private final CommentService commentService;
     private final CommentMapper commentMapper;
-    private final CurrentUserService currentUserService;
 
     @GetMapping("/post/{postId}")
     public ResponseEntity<Page<CommentResponse>> getCommentsByPost(
@@ -36,6 +35,19 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
 
+    @GetMapping(value = "/post/{postId}", params = "after")
+    public ResponseEntity<CursorPage<CommentResponse>> getCommentsByPostAfter(
+        @PathVariable Long postId,
+        @RequestParam String after,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        CursorPage<CommentResponse> comments = commentService
+            .getCommentsByPostIdAfter(postId, after, size)
+            .map(commentMapper::toDto);
+
+        return ResponseEntity.ok(comments);
+    }
+
     @PostMapping("/post/{postId}")
     public ResponseEntity<CommentResponse> addComment(
         @PathVariable Long postId,
@@ -51,10 +63,6 @@ public class CommentController {
         @PathVariable Long commentId,
         @RequestBody String content
     ) {
-        String authorUsername = getUsernameByCommendId(commentId);
-
-        currentUserService.checkIsOwnerOrAdmin(authorUsername);
-
         Comment updated = commentService.editComment(commentId, content);
         CommentResponse response = commentMapper.toDto(updated);
         return ResponseEntity.ok(response);
@@ -62,17 +70,7 @@ public class CommentController {
 
     @DeleteMapping("/{commentId}")
     public ResponseEntity<Void> deleteComment(@PathVariable Long commentId) {
-        String authorUsername = getUsernameByCommendId(commentId);
-
-        currentUserService.checkIsOwnerOrAdmin(authorUsername);
-
         commentService.deleteComment(commentId);
         return ResponseEntity.noContent().build();
     }
-
-    // private helper
-
-    private String getUsernameByCommendId(Long id) {
-        return commentService.getCommentById(id).getAuthor().getUsername();
-    }
 }
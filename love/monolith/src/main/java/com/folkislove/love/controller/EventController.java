@@ -1,23 +1,27 @@
 package com.folkislove.love.controller;
 
 import com.folkislove.common.dto.request.EventRequest;
+import com.folkislove.common.dto.response.CursorPage;
 import com.folkislove.common.dto.response.EventResponse;
 import com.folkislove.love.mapper.EventMapper;
 import com.folkislove.love.model.Event;
 import com.folkislove.love.service.EventService;
+import com.folkislove.love.service.TagIndexService;
 
 import jakarta.validation.Valid;
 
-import com.folkislove.love.service.CurrentUserService;
-
 import lombok.AllArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/events")
 @AllArgsConstructor
@@ -25,7 +29,6 @@ public class EventController {
 
     private final EventService eventService;
     private final EventMapper eventMapper;
-    private final CurrentUserService currentUserService;
 
     @GetMapping
     public ResponseEntity<Page<EventResponse>> getAllEvents(
@@ -59,10 +62,6 @@ public class EventController {
         @PathVariable Long id,
         @Valid @RequestBody EventRequest request
     ) {
-        String authorUsername = getAuthorUsernameById(id);
-
-        currentUserService.checkIsOwner(authorUsername);
-
         Event event = eventService.editEvent(id, request);
         EventResponse response = eventMapper.toDto(event);
 
@@ -71,10 +70,6 @@ public class EventController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEvent(@PathVariable Long id) {
-        String authorUsername = getAuthorUsernameById(id);
-
-        currentUserService.checkIsOwnerOrAdmin(authorUsername);
-
         eventService.deleteEvent(id);
         return ResponseEntity.noContent().build();
     }
@@ -91,6 +86,18 @@ public class EventController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/upcoming", params = "after")
+    public ResponseEntity<CursorPage<EventResponse>> getUpcomingEventsAfter(
+        @RequestParam String after,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        CursorPage<EventResponse> response = eventService
+            .getUpcomingEventsAfter(after, size)
+            .map(eventMapper::toDto);
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/tag/{tagId}")
     public ResponseEntity<Page<EventResponse>> getEventsByTag(
         @PathVariable Long tagId,
@@ -104,9 +111,39 @@ public class EventController {
         return ResponseEntity.ok(response);
     }
 
-    // private helper
+    @GetMapping("/tag/{tagId}/upcoming")
+    public ResponseEntity<Page<EventResponse>> getUpcomingEventsByTag(
+        @PathVariable Long tagId,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        Page<EventResponse> response = eventService
+            .getUpcomingEventsByTag(tagId, PageRequest.of(page, size))
+            .map(eventMapper::toDto);
+
+        return ResponseEntity.ok(response);
+    }
 
-    private String getAuthorUsernameById(Long id) {
-        return eventService.getEventById(id).getAuthor().getUsername();
+    // /api/events/search?country=&city=&from=2026-11-01&to=2026-11-30&tags=1,2&mode=all|any&exclude=3&q=ceili
+    @GetMapping("/search")
+    public ResponseEntity<Page<EventResponse>> search(
+        @RequestParam(required = false) String country,
+        @RequestParam(required = false) String city,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(defaultValue = "") List<Long> tags,
+        @RequestParam(defaultValue = "all") String mode,
+        @RequestParam(defaultValue = "") List<Long> exclude,
+        @RequestParam(required = false) String q,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        EventService.Filter filter = new EventService.Filter(
+            country, city, from, to, tags, TagIndexService.Mode.parse(mode), exclude, q);
+        Page<EventResponse> response = eventService
+            .search(filter, PageRequest.of(page, size))
+            .map(eventMapper::toDto);
+
+        return ResponseEntity.ok(response);
     }
 }
@@ -1,11 +1,12 @@
 package com.folkislove.love.controller;
 
 import com.folkislove.common.dto.request.PostRequest;
+import com.folkislove.common.dto.response.CursorPage;
 import com.folkislove.common.dto.response.PostResponse;
 import com.folkislove.love.mapper.PostMapper;
 import com.folkislove.love.model.Post;
-import com.folkislove.love.service.CurrentUserService;
 import com.folkislove.love.service.PostService;
+import com.folkislove.love.service.TagIndexService;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -16,6 +17,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/posts")
 @AllArgsConstructor
@@ -23,7 +26,6 @@ public class PostController {
 
     private final PostService postService;
     private final PostMapper postMapper;
-    private final CurrentUserService currentUserService;
 
     @GetMapping
     public ResponseEntity<Page<PostResponse>> getAllPosts(
@@ -36,6 +38,17 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<PostResponse>> getPostsAfter(
+        @RequestParam String after,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        CursorPage<PostResponse> posts = postService
+            .getPostsAfter(after, size)
+            .map(postMapper::toDto);
+        return ResponseEntity.ok(posts);
+    }
+
     @PostMapping
     public ResponseEntity<PostResponse> createPost(
         @Valid @RequestBody PostRequest request
@@ -57,10 +70,6 @@ public class PostController {
         @PathVariable Long id,
         @Valid @RequestBody PostRequest request
     ) {
-        String authorUsername = getAuthorUsernameByPostId(id);
-
-        currentUserService.checkIsOwner(authorUsername);
-
         Post updated = postService.editPost(id, request);
         PostResponse response = postMapper.toDto(updated);
         return ResponseEntity.ok(response);
@@ -68,10 +77,6 @@ public class PostController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePost(@PathVariable Long id) {
-        String authorUsername = getAuthorUsernameByPostId(id);
-
-        currentUserService.checkIsOwnerOrAdmin(authorUsername);
-
         postService.deletePost(id);
         return ResponseEntity.noContent().build();
     }
@@ -88,9 +93,18 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
-    // private helper
-
-    private String getAuthorUsernameByPostId(Long id) {
-        return postService.getPostById(id).getAuthor().getUsername();
+    // /api/posts/search?tags=1,2&mode=all|any&exclude=3
+    @GetMapping("/search")
+    public ResponseEntity<Page<PostResponse>> searchByTags(
+        @RequestParam List<Long> tags,
+        @RequestParam(defaultValue = "all") String mode,
+        @RequestParam(defaultValue = "") List<Long> exclude,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        Page<PostResponse> posts = postService
+            .searchByTags(tags, TagIndexService.Mode.parse(mode), exclude, PageRequest.of(page, size))
+            .map(postMapper::toDto);
+        return ResponseEntity.ok(posts);
     }
 }
@@ -0,0 +1,54 @@
+package com.folkislove.love.controller;
+
+import com.folkislove.common.dto.response.SearchHitResponse;
+import com.folkislove.love.mapper.SearchMapper;
+import com.folkislove.love.service.CurrentUserService;
+import com.folkislove.love.service.SearchService;
+
+import lombok.AllArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@AllArgsConstructor
+public class SearchController {
+
+    private static final int MAX_RESULTS = 50;
+
+    private final SearchService searchService;
+    private final SearchMapper searchMapper;
+    private final CurrentUserService currentUserService;
+
+    /**
+     * Полнотекстовый поиск по постам и комментариям, лучшие совпадения первыми.
+     * Слова в кавычках ищутся фразой.
+     */
+    @GetMapping
+    public ResponseEntity<List<SearchHitResponse>> search(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        List<SearchHitResponse> hits = searchService.search(q, Math.clamp(limit, 1, MAX_RESULTS)).stream()
+            .map(searchMapper::toDto)
+            .toList();
+        return ResponseEntity.ok(hits);
+    }
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<Void> snapshot() {
+        currentUserService.checkIsAdmin();
+        searchService.snapshot();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        currentUserService.checkIsAdmin();
+        searchService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
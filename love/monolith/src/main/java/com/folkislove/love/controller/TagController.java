@@ -1,10 +1,13 @@
 package com.folkislove.love.controller;
 
 import com.folkislove.common.dto.response.TagResponse;
+import com.folkislove.common.dto.response.TagUsageResponse;
 import com.folkislove.love.mapper.TagMapper;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.service.CurrentUserService;
+import com.folkislove.love.service.SuggestionService;
 import com.folkislove.love.service.TagService;
+import com.folkislove.love.service.TagUsageService;
 
 import lombok.AllArgsConstructor;
 
@@ -13,6 +16,10 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Контроллер для тегов.
@@ -24,19 +31,68 @@ import org.springframework.web.bind.annotation.*;
 @AllArgsConstructor
 public class TagController {
 
+    private static final int MAX_POPULAR = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final TagService tagService;
+    private final TagUsageService tagUsageService;
+    private final SuggestionService suggestionService;
     private final TagMapper tagMapper;
     private final CurrentUserService currentUserService;
 
+    /**
+     * Справочник отдается из памяти с ETag: пока теги не менялись,
+     * клиент с If-None-Match получает 304 без тела.
+     */
     @GetMapping
     public ResponseEntity<Page<TagResponse>> getAllTags(
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        WebRequest webRequest
     ) {
+        String etag = tagService.getTagsVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         Page<TagResponse> tags = tagService
             .getAllTags(PageRequest.of(page, size))
             .map(tagMapper::toDto);
 
+        return ResponseEntity.ok().eTag(etag).body(tags);
+    }
+
+    /**
+     * Рейтинг тегов по использованию, из счетчиков в памяти.
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<List<TagUsageResponse>> getPopularTags(
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<TagUsageService.Usage> usages = tagUsageService.getMostUsed(Math.clamp(limit, 1, MAX_POPULAR));
+        Map<Long, Tag> existing = tagService.getExistingTags(usages.stream().map(TagUsageService.Usage::tagId).toList());
+
+        // тег мог быть удален (например, на другом узле) до пересчета счетчиков - пропускаем его
+        List<TagUsageResponse> tags = usages.stream()
+            .filter(usage -> existing.containsKey(usage.tagId()))
+            .map(usage -> tagMapper.toUsageDto(existing.get(usage.tagId()), usage))
+            .toList();
+
+        return ResponseEntity.ok(tags);
+    }
+
+    /**
+     * Подсказки для выбора тега: по префиксу, затем с учетом опечаток. БД не трогает.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TagResponse>> suggestTags(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<TagResponse> tags = suggestionService.suggestTags(q, Math.clamp(limit, 1, MAX_SUGGESTIONS)).stream()
+            .map(tagMapper::toDto)
+            .toList();
+
         return ResponseEntity.ok(tags);
     }
 
@@ -5,11 +5,19 @@ import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
 
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.common.dto.response.PostResponse;
 import com.folkislove.common.dto.response.UserResponse;
+import com.folkislove.love.mapper.PostMapper;
 import com.folkislove.love.mapper.UserMapper;
 import com.folkislove.love.model.User;
 import com.folkislove.love.service.CurrentUserService;
+import com.folkislove.love.service.PostService;
+import com.folkislove.love.service.SuggestionService;
 import com.folkislove.love.service.UserService;
+import com.folkislove.love.util.SuggestionIndex;
+
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 
@@ -18,17 +26,65 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class UserController {
 
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final UserService userService;
     private final UserMapper userMapper;
     private final CurrentUserService currentUserService;
+    private final SuggestionService suggestionService;
+    private final PostService postService;
+    private final PostMapper postMapper;
 
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser() {
-        User current = currentUserService.getCurrentUser();
+        User current = userService.getCurrentUserProfile();
         UserResponse response = userMapper.toDto(current);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Лента постов по интересам текущего пользователя, keyset пагинация по курсору.
+     */
+    @GetMapping("/me/feed")
+    public ResponseEntity<CursorPage<PostResponse>> getFeed(
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        CursorPage<PostResponse> feed = postService
+            .getFeed(after, size)
+            .map(postMapper::toDto);
+        return ResponseEntity.ok(feed);
+    }
+
+    /**
+     * Посты авторов из подписок текущего пользователя, keyset пагинация по курсору.
+     */
+    @GetMapping("/me/timeline")
+    public ResponseEntity<CursorPage<PostResponse>> getTimeline(
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        CursorPage<PostResponse> timeline = postService
+            .getTimeline(after, size)
+            .map(postMapper::toDto);
+        return ResponseEntity.ok(timeline);
+    }
+
+    /**
+     * Подсказки username для @-упоминаний, из индекса в памяти.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestUsers(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<String> usernames = suggestionService.suggestUsers(q, Math.clamp(limit, 1, MAX_SUGGESTIONS)).stream()
+            .map(SuggestionIndex.Match::text)
+            .toList();
+
+        return ResponseEntity.ok(usernames);
+    }
+
     @GetMapping("/{username}")
     public ResponseEntity<UserResponse> getUserByUsername(@PathVariable String username) {
         User current = userService.getUserByUsername(username);
@@ -48,6 +104,18 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{username}/follow")
+    public ResponseEntity<Void> follow(@PathVariable String username) {
+        userService.follow(username);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @DeleteMapping("/{username}/follow")
+    public ResponseEntity<Void> unfollow(@PathVariable String username) {
+        userService.unfollow(username);
+        return ResponseEntity.ok().build();
+    }
+
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
         currentUserService.checkIsAdmin();
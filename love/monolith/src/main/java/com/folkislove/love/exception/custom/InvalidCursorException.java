@@ -0,0 +1,12 @@
+package com.folkislove.love.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+import com.folkislove.love.exception.AppException;
+
+public class InvalidCursorException extends AppException {
+
+    public InvalidCursorException() {
+        super(HttpStatus.BAD_REQUEST, "Invalid pagination cursor");
+    }
+}
@@ -0,0 +1,8 @@
+package com.folkislove.love.exception.custom;
+
+public class InvalidEventFilterException extends ValidationException {
+
+    public InvalidEventFilterException(String message) {
+        super(message);
+    }
+}
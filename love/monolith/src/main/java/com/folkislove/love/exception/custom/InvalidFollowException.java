@@ -0,0 +1,8 @@
+package com.folkislove.love.exception.custom;
+
+public class InvalidFollowException extends ValidationException {
+
+    public InvalidFollowException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.folkislove.love.exception.custom;
+
+public class InvalidPageOffsetException extends ValidationException {
+
+    public InvalidPageOffsetException(long maxOffset) {
+        super("Page offset must not exceed " + maxOffset + ", use the after cursor for deeper pages");
+    }
+}
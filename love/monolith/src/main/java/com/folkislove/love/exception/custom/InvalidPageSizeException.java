@@ -0,0 +1,8 @@
+package com.folkislove.love.exception.custom;
+
+public class InvalidPageSizeException extends ValidationException {
+
+    public InvalidPageSizeException(int maxSize) {
+        super("Page size must be between 1 and " + maxSize);
+    }
+}
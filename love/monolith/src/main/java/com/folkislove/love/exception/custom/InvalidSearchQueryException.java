@@ -0,0 +1,8 @@
+package com.folkislove.love.exception.custom;
+
+public class InvalidSearchQueryException extends ValidationException {
+
+    public InvalidSearchQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.folkislove.love.exception.custom;
+
+public class InvalidTagQueryException extends ValidationException {
+
+    public InvalidTagQueryException(String message) {
+        super(message);
+    }
+}
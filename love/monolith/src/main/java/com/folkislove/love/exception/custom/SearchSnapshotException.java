@@ -0,0 +1,11 @@
+package com.folkislove.love.exception.custom;
+
+import org.springframework.http.HttpStatus;
+import com.folkislove.love.exception.AppException;
+
+public class SearchSnapshotException extends AppException {
+
+    public SearchSnapshotException(String message) {
+        super(HttpStatus.INTERNAL_SERVER_ERROR, message);
+    }
+}
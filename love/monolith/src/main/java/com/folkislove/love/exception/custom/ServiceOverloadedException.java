@@ -0,0 +1,19 @@
+package com.folkislove.love.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+import com.folkislove.love.exception.AppException;
+
+public class ServiceOverloadedException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
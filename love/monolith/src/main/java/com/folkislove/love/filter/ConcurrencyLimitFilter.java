@@ -0,0 +1,105 @@
+package com.folkislove.love.filter;
+
+import com.folkislove.love.util.GradientConcurrencyLimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Сброс нагрузки: стоит первым фильтром контейнера, раньше Spring Security,
+ * чтобы лишние запросы получали 503 до того, как займут соединение с БД.
+ * Чтение и запись ограничиваются отдельно - медленные записи не должны душить GET.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final GradientConcurrencyLimit reads;
+    private final GradientConcurrencyLimit writes;
+    private final Counter readDrops;
+    private final Counter writeDrops;
+
+    public ConcurrencyLimitFilter(
+        MeterRegistry meterRegistry,
+        @Value("${concurrency-limit.enabled:true}") boolean enabled,
+        @Value("${concurrency-limit.reads.initial-limit:50}") int readsInitial,
+        @Value("${concurrency-limit.reads.min-limit:10}") int readsMin,
+        @Value("${concurrency-limit.reads.max-limit:400}") int readsMax,
+        @Value("${concurrency-limit.writes.initial-limit:20}") int writesInitial,
+        @Value("${concurrency-limit.writes.min-limit:5}") int writesMin,
+        @Value("${concurrency-limit.writes.max-limit:200}") int writesMax,
+        @Value("${concurrency-limit.tolerance:1.5}") double tolerance,
+        @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+        @Value("${concurrency-limit.long-window:600}") int longWindow
+    ) {
+        this.enabled = enabled;
+        this.reads = new GradientConcurrencyLimit(readsInitial, readsMin, readsMax, tolerance, smoothing, longWindow);
+        this.writes = new GradientConcurrencyLimit(writesInitial, writesMin, writesMax, tolerance, smoothing, longWindow);
+        this.readDrops = register(meterRegistry, "reads", reads);
+        this.writeDrops = register(meterRegistry, "writes", writes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        boolean read = isRead(request);
+        GradientConcurrencyLimit limit = read ? reads : writes;
+
+        if (!limit.tryAcquire()) {
+            (read ? readDrops : writeDrops).increment();
+            ErrorResponses.write(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is overloaded, try again later");
+            return;
+        }
+
+        int inflightAtStart = limit.getInflight();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start, inflightAtStart);
+        }
+    }
+
+    // private helpers
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String routeClass, GradientConcurrencyLimit limit) {
+        Gauge.builder("http.concurrency.limit", limit::getLimit)
+            .tag("class", routeClass)
+            .register(meterRegistry);
+        Gauge.builder("http.concurrency.inflight", limit::getInflight)
+            .tag("class", routeClass)
+            .register(meterRegistry);
+        return Counter.builder("http.concurrency.dropped")
+            .tag("class", routeClass)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.folkislove.love.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Ответы с ошибкой из фильтров, до GlobalExceptionHandler.
+ * Тело совпадает по форме с ErrorResponse.
+ */
+final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    static void write(HttpServletResponse response, HttpStatus status,
+                      long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
@@ -1,12 +1,20 @@
 package com.folkislove.love.filter;
 
+import com.folkislove.love.exception.custom.JwtAuthenticationException;
+import com.folkislove.love.exception.custom.ResourceNotFoundException;
+import com.folkislove.love.security.AuthenticatedUser;
+import com.folkislove.love.security.JwtClaims;
+import com.folkislove.love.security.TokenRevocationRegistry;
 import com.folkislove.love.service.JwtService;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import jakarta.servlet.FilterChain;
@@ -15,14 +23,36 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.function.Supplier;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final boolean claimsAuthentication;
+
+    public JwtFilter(
+        JwtService jwtService,
+        UserDetailsService userDetailsService,
+        TokenRevocationRegistry revocationRegistry,
+        @Value("${jwt.claims-authentication:true}") boolean claimsAuthentication
+    ) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.revocationRegistry = revocationRegistry;
+        this.claimsAuthentication = claimsAuthentication;
+    }
 
+    /**
+     * Токен не проверяется сразу: в контекст кладется отложенная аутентификация,
+     * которая разбирает токен только когда кто-то действительно читает SecurityContext.
+     * Публичные GET запросы с заголовком Bearer так и не доходят до проверки JWT.
+     */
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -30,23 +60,54 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String token = resolveToken(request);
 
-        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String username = jwtService.extractUsername(token);
+        if (token != null) {
+            Supplier<SecurityContext> upstream = SecurityContextHolder.getDeferredContext();
+            SecurityContextHolder.setDeferredContext(
+                SingletonSupplier.of(() -> authenticate(token, upstream.get()))
+            );
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private SecurityContext authenticate(String token, SecurityContext upstream) {
+        if (upstream.getAuthentication() != null) {
+            return upstream;
+        }
 
-            if (username != null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        try {
+            JwtClaims claims = jwtService.parseToken(token);
 
-                if (jwtService.isTokenValid(token, userDetails.getUsername())) {
-                    UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                        );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            if (claims.username() != null && !revocationRegistry.isRevoked(claims)) {
+                Authentication authentication = claimsAuthentication && claims.role() != null
+                    ? fromClaims(claims)
+                    : fromUserDetails(claims);
+                context.setAuthentication(authentication);
             }
+        } catch (JwtAuthenticationException | ResourceNotFoundException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
         }
+        return context;
+    }
 
-        filterChain.doFilter(request, response);
+    /**
+     * Principal и ROLE_* берутся прямо из проверенного токена, без запроса в БД.
+     */
+    private Authentication fromClaims(JwtClaims claims) {
+        AuthenticatedUser principal = AuthenticatedUser.from(claims);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+    }
+
+    private Authentication fromUserDetails(JwtClaims claims) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.username());
+
+        if (!claims.username().equals(userDetails.getUsername())) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+            userDetails, null, userDetails.getAuthorities()
+        );
     }
 
     /**
@@ -0,0 +1,123 @@
+package com.folkislove.love.filter;
+
+import com.folkislove.love.security.AuthenticatedUser;
+import com.folkislove.love.security.RateLimiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов на клиента. Стоит сразу после JwtFilter.
+ * Запросы с токеном считаются по id пользователя, анонимные и /api/auth/** - по IP:
+ * иначе все клиенты за одним NAT делят одно ведро. Для этого здесь разрешается
+ * отложенный контекст из JwtFilter; при claims-аутентификации это разбор токена без БД.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum RouteClass { AUTH, READS, WRITES }
+
+    private final boolean enabled;
+    private final Map<RouteClass, RateLimiter> limiters = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> rejections = new EnumMap<>(RouteClass.class);
+
+    public RateLimitFilter(
+        MeterRegistry meterRegistry,
+        @Value("${rate-limit.enabled:true}") boolean enabled,
+        @Value("${rate-limit.max-keys:100000}") int maxKeys,
+        @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+        @Value("${rate-limit.auth.refill-per-second:0.2}") double authRefill,
+        @Value("${rate-limit.reads.capacity:100}") int readsCapacity,
+        @Value("${rate-limit.reads.refill-per-second:20}") double readsRefill,
+        @Value("${rate-limit.writes.capacity:30}") int writesCapacity,
+        @Value("${rate-limit.writes.refill-per-second:2}") double writesRefill
+    ) {
+        this.enabled = enabled;
+        limiters.put(RouteClass.AUTH, new RateLimiter(authCapacity, authRefill, maxKeys));
+        limiters.put(RouteClass.READS, new RateLimiter(readsCapacity, readsRefill, maxKeys));
+        limiters.put(RouteClass.WRITES, new RateLimiter(writesCapacity, writesRefill, maxKeys));
+
+        for (RouteClass routeClass : RouteClass.values()) {
+            rejections.put(routeClass, Counter.builder("http.rate.limit.rejected")
+                .tag("class", routeClass.name().toLowerCase())
+                .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        RouteClass routeClass = classify(request);
+        long waitNanos = limiters.get(routeClass).tryAcquire(clientKey(request, routeClass));
+
+        if (waitNanos > 0) {
+            rejections.get(routeClass).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+
+            ErrorResponses.write(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds, "Too many requests");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.idle-eviction-ms:60000}")
+    public void evictIdleClients() {
+        limiters.values().forEach(RateLimiter::evictIdle);
+    }
+
+    // private helpers
+
+    private RouteClass classify(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return RouteClass.AUTH;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return RouteClass.READS;
+        }
+        return RouteClass.WRITES;
+    }
+
+    private String clientKey(HttpServletRequest request, RouteClass routeClass) {
+        if (routeClass != RouteClass.AUTH) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.isAuthenticated()) {
+                Object principal = auth.getPrincipal();
+                if (principal instanceof AuthenticatedUser user) {
+                    return "user:" + user.id();
+                }
+                if (!"anonymousUser".equals(principal)) {
+                    return "user:" + auth.getName();
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -11,6 +11,7 @@ import com.folkislove.common.dto.response.EventResponse;
 import com.folkislove.love.model.Event;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.model.User;
+import com.folkislove.love.repository.projection.EventSummary;
 
 @Mapper(componentModel = "spring")
 public interface EventMapper {
@@ -19,6 +20,8 @@ public interface EventMapper {
     @Mapping(target = "authorUsername", source = "author", qualifiedByName = "authorToUsername")
     EventResponse toDto(Event event);
 
+    EventResponse toDto(EventSummary summary);
+
     @Named("authorToUsername")
     default String authorToUsername(User author) {
         if (author == null) return null;
@@ -1,10 +1,10 @@
 package com.folkislove.love.mapper;
 
 import com.folkislove.common.dto.response.PostResponse;
-import com.folkislove.love.model.Comment;
 import com.folkislove.love.model.Post;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.model.User;
+import com.folkislove.love.repository.projection.PostSummary;
 
 import java.util.List;
 import java.util.Set;
@@ -18,9 +18,10 @@ public interface PostMapper {
 
     @Mapping(target = "authorUsername", source = "author", qualifiedByName = "authorToUsername")
     @Mapping(target = "tags", source = "tags", qualifiedByName = "tagsToNames")
-    @Mapping(target = "commentsCount", source = "comments", qualifiedByName = "commentsToCount")
     PostResponse toDto(Post post);
 
+    PostResponse toDto(PostSummary summary);
+
     @Named("tagsToNames")
     default List<String> tagsToNames(Set<Tag> tags) {
         if (tags == null) return List.of();
@@ -34,10 +35,4 @@ public interface PostMapper {
         if (author == null) return null;
         return author.getUsername();
     }
-
-    @Named("commentsToCount")
-    default Integer commentsToCount(Set<Comment> comments) {
-        if (comments == null) return 0;
-        return comments.size();
-    }
 }
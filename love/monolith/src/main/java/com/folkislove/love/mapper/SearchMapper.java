@@ -0,0 +1,14 @@
+package com.folkislove.love.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.folkislove.common.dto.response.SearchHitResponse;
+import com.folkislove.love.service.SearchService;
+
+@Mapper(componentModel = "spring")
+public interface SearchMapper {
+
+    @Mapping(target = "type", source = "kind")
+    SearchHitResponse toDto(SearchService.Hit hit);
+}
@@ -1,12 +1,26 @@
 package com.folkislove.love.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import com.folkislove.common.dto.response.TagResponse;
+import com.folkislove.common.dto.response.TagUsageResponse;
 import com.folkislove.love.model.Tag;
+import com.folkislove.love.service.TagUsageService;
+import com.folkislove.love.util.SuggestionIndex;
 
 @Mapper(componentModel = "spring")
 public interface TagMapper {
 
     TagResponse toDto(Tag tag);
+
+    @Mapping(target = "name", source = "text")
+    TagResponse toDto(SuggestionIndex.Match match);
+
+    @Mapping(target = "id", source = "tag.id")
+    @Mapping(target = "name", source = "tag.name")
+    @Mapping(target = "posts", source = "usage.posts")
+    @Mapping(target = "events", source = "usage.events")
+    @Mapping(target = "users", source = "usage.users")
+    TagUsageResponse toUsageDto(Tag tag, TagUsageService.Usage usage);
 }
@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_post_created_at_id", columnList = "post_id, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -0,0 +1,26 @@
+package com.folkislove.love.model;
+
+import lombok.*;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Отметка о разовом преобразовании данных, которое не выразить через ddl-auto
+ * (например, заполнение новой колонки по другим таблицам). Строка вставляется
+ * в одной транзакции с самим преобразованием, первичный ключ не дает выполнить его дважды.
+ */
+@Entity
+@Table(name = "data_migrations")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class DataMigration {
+
+    @Id
+    @Column(length = 100)
+    private String id;
+
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt;
+}
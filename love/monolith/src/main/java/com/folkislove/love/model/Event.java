@@ -10,7 +10,12 @@ import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+    @Index(name = "idx_events_date_time_id", columnList = "date_time, id"),
+    // фильтры поиска: равенство по стране или городу, затем диапазон и порядок по дате
+    @Index(name = "idx_events_country_date_time_id", columnList = "country, date_time, id"),
+    @Index(name = "idx_events_city_date_time_id", columnList = "city, date_time, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -58,7 +63,8 @@ public class Event {
     @JoinTable(
         name = "event_tags",
         joinColumns = @JoinColumn(name = "event_id"),
-        inverseJoinColumns = @JoinColumn(name = "tag_id")
+        inverseJoinColumns = @JoinColumn(name = "tag_id"),
+        indexes = @Index(name = "idx_event_tags_tag_event", columnList = "tag_id, event_id")
     )
     @Builder.Default
     private Set<Tag> tags = new HashSet<>();
@@ -7,10 +7,17 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_posts_deleted_at", columnList = "deleted_at")
+})
+@SQLRestriction("deleted_at is null")
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -38,6 +45,16 @@ public class Post {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // денормализованный счетчик, пишется только CommentCountService батчами
+    @Column(name = "comments_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int commentsCount = 0;
+
+    // tombstone: пост уже удален для API, комментарии вычищает PostPurgeService
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
@@ -0,0 +1,28 @@
+package com.folkislove.love.model;
+
+import lombok.*;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Последний отзыв токенов пользователя, см. TokenRevocationRegistry.
+ * Без внешнего ключа на users: отзыв удаленного пользователя тоже должен пережить рестарт.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = @Index(name = "idx_token_revocations_revoked_at", columnList = "revoked_at"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @Column(length = 50)
+    private String username;
+
+    @Column(nullable = false)
+    private long generation;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
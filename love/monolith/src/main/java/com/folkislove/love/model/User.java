@@ -21,7 +21,7 @@ import com.folkislove.common.enums.Role;
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Builder
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(exclude = {"interests"})
+@ToString(exclude = {"interests", "following"})
 public class User {
 
     @Id
@@ -64,6 +64,18 @@ public class User {
     @Builder.Default
     private Set<Tag> interests = new HashSet<>();
 
+    // подписки читаются и меняются запросами UserRepository, коллекция целиком не грузится
+    @JsonIgnore
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(
+        name = "user_follows",
+        joinColumns = @JoinColumn(name = "follower_id"),
+        inverseJoinColumns = @JoinColumn(name = "followee_id"),
+        indexes = @Index(name = "idx_user_follows_followee", columnList = "followee_id")
+    )
+    @Builder.Default
+    private Set<User> following = new HashSet<>();
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
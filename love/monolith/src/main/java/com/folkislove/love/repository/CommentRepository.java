@@ -1,11 +1,95 @@
 package com.folkislove.love.repository;
 
 import com.folkislove.love.model.Comment;
+import com.folkislove.love.repository.projection.CommentText;
 
-import org.springframework.data.domain.Page;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CommentRepository extends JpaRepository<Comment, Long>  {
-    Page<Comment> findByPostId(Long postId, Pageable pageable);
+
+    // Выборки и правка проверяют p.deletedAt is null явно: комментарии удаленного (tombstone)
+    // поста не видны до того, как их вычистит PostPurgeService. Ограничение Post
+    // на join по внешнему ключу не полагаемся.
+
+    // план выборки для CommentMapper.toDto(Comment)
+    @Query("select c from Comment c join fetch c.author join c.post p where c.id = :id and p.deletedAt is null")
+    Optional<Comment> findWithAuthorById(@Param("id") Long id);
+
+    @Query("select count(c) > 0 from Comment c join c.post p where c.id = :id and p.deletedAt is null")
+    boolean existsVisibleById(@Param("id") Long id);
+
+    // проверка владельца - часть запроса, а не отдельная загрузка
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        update Comment c set c.content = :content, c.updatedAt = :updatedAt
+        where c.id = :id and (c.author.id = :userId or :admin = true)
+          and exists (select p.id from Post p where p.id = c.post.id and p.deletedAt is null)
+        """)
+    int updateContentIfOwned(
+        @Param("id") Long id,
+        @Param("content") String content,
+        @Param("updatedAt") LocalDateTime updatedAt,
+        @Param("userId") Long userId,
+        @Param("admin") boolean admin
+    );
+
+    @Query("""
+        select p.id from Comment c join c.post p
+        where c.id = :id and p.deletedAt is null and (c.author.id = :userId or :admin = true)
+        """)
+    Optional<Long> findPostIdIfOwned(@Param("id") Long id, @Param("userId") Long userId, @Param("admin") boolean admin);
+
+    @Modifying
+    @Query("delete from Comment c where c.id = :id")
+    int deleteInBulkById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Comment c where c.post.id = :postId")
+    int deleteInBulkByPostId(@Param("postId") Long postId);
+
+    @Query("select c from Comment c join fetch c.author join c.post p where p.id = :postId and p.deletedAt is null")
+    List<Comment> findByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("select count(c) from Comment c join c.post p where p.id = :postId and p.deletedAt is null")
+    long countByPostId(@Param("postId") Long postId);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.CommentText(c.id, p.id, c.content)
+        from Comment c join c.post p
+        where c.id in :ids and p.deletedAt is null
+        """)
+    List<CommentText> findTextsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // keyset пагинация: по порядку написания, по (createdAt, id)
+
+    @Query("""
+        select c from Comment c join fetch c.author join c.post p
+        where p.id = :postId and p.deletedAt is null
+        order by c.createdAt, c.id
+        """)
+    List<Comment> findOldestByPostId(@Param("postId") Long postId, Limit limit);
+
+    @Query("""
+        select c from Comment c join fetch c.author join c.post p
+        where p.id = :postId and p.deletedAt is null
+          and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id))
+        order by c.createdAt, c.id
+        """)
+    List<Comment> findByPostIdAfter(
+        @Param("postId") Long postId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Limit limit
+    );
 }
@@ -1,14 +1,77 @@
 package com.folkislove.love.repository;
 
 import com.folkislove.love.model.Event;
+import com.folkislove.love.repository.projection.EventSummary;
+import com.folkislove.love.repository.projection.OwnedTagName;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface EventRepository extends JpaRepository<Event, Long>  {
-    Page<Event> findByTags_Id(Long tagId, Pageable pageable);
-    Page<Event> findByDateTimeAfter(LocalDateTime now, Pageable pagable);
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+
+    // план выборки для EventMapper.toDto(Event)
+    @EntityGraph(attributePaths = { "author", "tags" })
+    Optional<Event> findWithAuthorAndTagsById(Long id);
+
+    // проверка владельца - часть запроса, а не отдельная загрузка
+
+    @EntityGraph(attributePaths = { "author", "tags" })
+    @Query("select e from Event e where e.id = :id and (e.author.id = :userId or :admin = true)")
+    Optional<Event> findOwnedById(@Param("id") Long id, @Param("userId") Long userId, @Param("admin") boolean admin);
+
+    // поиск по фильтрам EventSpecifications; теги догружаются одним запросом отдельно
+    @EntityGraph(attributePaths = "author")
+    Page<Event> findAll(Specification<Event> spec, Pageable pageable);
+
+    @Query("select e.author.id from Event e where e.id = :id")
+    Optional<Long> findAuthorIdById(@Param("id") Long id);
+
+    @Query("select t.id from Event e join e.tags t where e.id = :id")
+    List<Long> findTagIdsById(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "delete from event_tags where event_id = :id", nativeQuery = true)
+    void deleteTagLinks(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Event e where e.id = :id")
+    int deleteInBulkById(@Param("id") Long id);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.EventSummary(
+            e.id, e.title, e.description, e.dateTime, e.city, e.country, e.venue, e.link,
+            a.username, e.createdAt)
+        from Event e join e.author a
+        """)
+    List<EventSummary> findSummaries(Pageable pageable);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.EventSummary(
+            e.id, e.title, e.description, e.dateTime, e.city, e.country, e.venue, e.link,
+            a.username, e.createdAt)
+        from Event e join e.author a join e.tags t
+        where t.id = :tagId
+        """)
+    List<EventSummary> findSummariesByTagId(@Param("tagId") Long tagId, Pageable pageable);
+
+    @Query("select count(e) from Event e join e.tags t where t.id = :tagId")
+    long countByTagId(@Param("tagId") Long tagId);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.OwnedTagName(e.id, t.name)
+        from Event e join e.tags t
+        where e.id in :eventIds
+        """)
+    List<OwnedTagName> findTagNamesByEventIds(@Param("eventIds") Collection<Long> eventIds);
 }
@@ -0,0 +1,93 @@
+package com.folkislove.love.repository;
+
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Tag;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Фильтры поиска событий. Страна, город и даты - условия на колонки с составными
+ * индексами Event, теги - EXISTS по event_tags, текст - остаточное условие поверх них.
+ */
+public final class EventSpecifications {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> inCountry(String country) {
+        return (root, query, cb) -> cb.equal(root.get("country"), country);
+    }
+
+    public static Specification<Event> inCity(String city) {
+        return (root, query, cb) -> cb.equal(root.get("city"), city);
+    }
+
+    public static Specification<Event> startingFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dateTime"), from);
+    }
+
+    public static Specification<Event> startingBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("dateTime"), to);
+    }
+
+    // по EXISTS на каждый тег
+    public static Specification<Event> withAllTags(Collection<Long> tagIds) {
+        return Specification.allOf(tagIds.stream()
+            .map(tagId -> (Specification<Event>) (root, query, cb) ->
+                taggedWith(root, query, cb, tag -> cb.equal(tag, tagId)))
+            .toList());
+    }
+
+    public static Specification<Event> withAnyTag(Collection<Long> tagIds) {
+        return (root, query, cb) -> taggedWith(root, query, cb, tag -> tag.in(tagIds));
+    }
+
+    public static Specification<Event> withoutTags(Collection<Long> tagIds) {
+        return (root, query, cb) -> cb.not(taggedWith(root, query, cb, tag -> tag.in(tagIds)));
+    }
+
+    // подстрока в названии или месте, без учета регистра
+    public static Specification<Event> titleOrVenueContains(String text) {
+        String pattern = "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+            cb.like(cb.lower(root.get("title")), pattern, LIKE_ESCAPE),
+            cb.like(cb.lower(root.get("venue")), pattern, LIKE_ESCAPE)
+        );
+    }
+
+    // private helpers
+
+    private static Predicate taggedWith(Root<Event> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                        Function<Path<Long>, Predicate> condition) {
+        Subquery<Long> tagged = query.subquery(Long.class);
+        Join<Event, Tag> tag = tagged.correlate(root).join("tags");
+        tagged.select(tag.get("id")).where(condition.apply(tag.get("id")));
+        return cb.exists(tagged);
+    }
+
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
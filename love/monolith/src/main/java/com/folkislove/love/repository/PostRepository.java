@@ -1,11 +1,130 @@
 package com.folkislove.love.repository;
 
 import com.folkislove.love.model.Post;
+import com.folkislove.love.repository.projection.OwnedTagName;
+import com.folkislove.love.repository.projection.PostSummary;
 
-import org.springframework.data.domain.Page;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PostRepository extends JpaRepository<Post, Long>  {
-    Page<Post> findAllByTags_Id(Long tagId, Pageable pageable);
+
+    // план выборки для PostMapper.toDto(Post): автор и теги одним запросом
+    @EntityGraph(attributePaths = { "author", "tags" })
+    Optional<Post> findWithAuthorAndTagsById(Long id);
+
+    // проверка владельца - часть запроса, а не отдельная загрузка
+
+    @EntityGraph(attributePaths = { "author", "tags" })
+    @Query("select p from Post p where p.id = :id and (p.author.id = :userId or :admin = true)")
+    Optional<Post> findOwnedById(@Param("id") Long id, @Param("userId") Long userId, @Param("admin") boolean admin);
+
+    @Query("select p.author.id from Post p where p.id = :id")
+    Optional<Long> findAuthorIdById(@Param("id") Long id);
+
+    @Query("select t.id from Post p join p.tags t where p.id = :id")
+    List<Long> findTagIdsById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Post p set p.deletedAt = :deletedAt where p.id = :id")
+    int markDeleted(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying
+    @Query(value = "delete from post_tags where post_id = :id", nativeQuery = true)
+    void deleteTagLinks(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Post p where p.id = :id")
+    int deleteInBulkById(@Param("id") Long id);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a
+        """)
+    List<PostSummary> findSummaries(Pageable pageable);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a join p.tags t
+        where t.id = :tagId
+        """)
+    List<PostSummary> findSummariesByTagId(@Param("tagId") Long tagId, Pageable pageable);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a
+        where p.id in :ids
+        """)
+    List<PostSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // продолжение ленты за границей FeedIndexService: посты с любым из тегов, новые сверху
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a
+        where p.id < :before
+          and exists (select t.id from Post tagged join tagged.tags t where tagged = p and t.id in :tagIds)
+        order by p.id desc
+        """)
+    List<PostSummary> findSummariesByAnyTagBefore(@Param("tagIds") Collection<Long> tagIds,
+                                                  @Param("before") Long before, Limit limit);
+
+    @Query("select p.id from Post p where p.author.id in :authorIds order by p.id desc")
+    List<Long> findIdsByAuthorIdIn(@Param("authorIds") Collection<Long> authorIds, Limit limit);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a
+        where a.id in :authorIds and p.id < :before
+        order by p.id desc
+        """)
+    List<PostSummary> findSummariesByAuthorIdInBefore(@Param("authorIds") Collection<Long> authorIds,
+                                                      @Param("before") Long before, Limit limit);
+
+    @Query("select count(p) from Post p join p.tags t where t.id = :tagId")
+    long countByTagId(@Param("tagId") Long tagId);
+
+    // keyset пагинация: новые сверху, по (createdAt, id)
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a
+        order by p.createdAt desc, p.id desc
+        """)
+    List<PostSummary> findLatestSummaries(Limit limit);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.PostSummary(
+            p.id, p.title, p.content, a.username, p.createdAt, p.commentsCount)
+        from Post p join p.author a
+        where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)
+        order by p.createdAt desc, p.id desc
+        """)
+    List<PostSummary> findSummariesBefore(
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Limit limit
+    );
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.OwnedTagName(p.id, t.name)
+        from Post p join p.tags t
+        where p.id in :postIds
+        """)
+    List<OwnedTagName> findTagNamesByPostIds(@Param("postIds") Collection<Long> postIds);
 }
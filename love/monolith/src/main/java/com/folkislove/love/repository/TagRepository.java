@@ -3,7 +3,19 @@ package com.folkislove.love.repository;
 import com.folkislove.love.model.Tag;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface TagRepository extends JpaRepository<Tag, Long>  {
     boolean existsByNameIgnoreCase(String name);
+
+    // 1, если тег где-то используется, иначе 0: boolean из native exists MySQL отдает числом.
+    // Учитывает и посты в tombstone: их связи живут до фоновой очистки
+    @Query(value = """
+        select case when exists(select 1 from post_tags where tag_id = :id)
+            or exists(select 1 from event_tags where tag_id = :id)
+            or exists(select 1 from user_tags where tag_id = :id)
+        then 1 else 0 end
+        """, nativeQuery = true)
+    int usageExists(@Param("id") Long id);
 }
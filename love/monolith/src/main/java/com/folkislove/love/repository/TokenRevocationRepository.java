@@ -0,0 +1,20 @@
+package com.folkislove.love.repository;
+
+import com.folkislove.love.model.TokenRevocation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    List<TokenRevocation> findByRevokedAtAfter(Instant horizon);
+
+    @Modifying
+    @Query("delete from TokenRevocation r where r.revokedAt < :horizon")
+    int deleteRevokedBefore(@Param("horizon") Instant horizon);
+}
@@ -1,13 +1,70 @@
 package com.folkislove.love.repository;
 
 import com.folkislove.love.model.User;
+import com.folkislove.love.repository.projection.Followee;
+import com.folkislove.love.repository.projection.UserName;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long>  {
     Optional<User> findByUsername(String username);
+
+    // план выборки для UserMapper.toDto(User)
+    @EntityGraph(attributePaths = "interests")
+    Optional<User> findWithInterestsByUsername(String username);
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("select u.username from User u")
+    List<String> findAllUsernames();
+
+    @Query("select u.email from User u")
+    List<String> findAllEmails();
+
+    @Query("select t.id from User u join u.interests t where u.id = :id")
+    List<Long> findInterestIdsById(@Param("id") Long id);
+
+    // подписки
+
+    // 1 или 0, как TagRepository.usageExists
+    @Query(value = """
+        select case when exists(select 1 from user_follows where follower_id = :followerId and followee_id = :followeeId)
+        then 1 else 0 end
+        """, nativeQuery = true)
+    int followExists(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    @Modifying
+    @Query(value = "insert into user_follows (follower_id, followee_id) values (:followerId, :followeeId)", nativeQuery = true)
+    void insertFollow(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    @Modifying
+    @Query(value = "delete from user_follows where follower_id = :followerId and followee_id = :followeeId", nativeQuery = true)
+    int deleteFollow(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    @Modifying
+    @Query(value = "delete from user_follows where follower_id = :id or followee_id = :id", nativeQuery = true)
+    void deleteFollowLinks(@Param("id") Long id);
+
+    // не больше limit подписчиков: для раздачи поста и проверки "слишком много подписчиков"
+    @Query(value = "select follower_id from user_follows where followee_id = :id limit :limit", nativeQuery = true)
+    List<Long> findFollowerIds(@Param("id") Long id, @Param("limit") int limit);
+
+    @Query("""
+        select new com.folkislove.love.repository.projection.Followee(
+            f.id, (select count(x) from User x join x.following y where y = f))
+        from User u join u.following f
+        where u.id = :id
+        """)
+    List<Followee> findFollowees(@Param("id") Long id);
+
+    @Query("select new com.folkislove.love.repository.projection.UserName(u.id, u.username) from User u")
+    List<UserName> findAllUserNames();
 }
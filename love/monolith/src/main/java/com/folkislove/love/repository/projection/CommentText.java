@@ -0,0 +1,7 @@
+package com.folkislove.love.repository.projection;
+
+/**
+ * Текст комментария и его пост - для результатов поиска.
+ */
+public record CommentText(Long id, Long postId, String content) {
+}
@@ -0,0 +1,33 @@
+package com.folkislove.love.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Строка списка событий, см. PostSummary.
+ */
+public record EventSummary(
+    Long id,
+    String title,
+    String description,
+    LocalDateTime dateTime,
+    String city,
+    String country,
+    String venue,
+    String link,
+    String authorUsername,
+    LocalDateTime createdAt,
+    List<String> tags
+) {
+
+    public EventSummary(Long id, String title, String description, LocalDateTime dateTime,
+                        String city, String country, String venue, String link,
+                        String authorUsername, LocalDateTime createdAt) {
+        this(id, title, description, dateTime, city, country, venue, link, authorUsername, createdAt, List.of());
+    }
+
+    public EventSummary withTags(List<String> tags) {
+        return new EventSummary(id, title, description, dateTime, city, country, venue, link,
+            authorUsername, createdAt, tags);
+    }
+}
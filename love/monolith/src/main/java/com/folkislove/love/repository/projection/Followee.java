@@ -0,0 +1,7 @@
+package com.folkislove.love.repository.projection;
+
+/**
+ * Автор, на которого подписан пользователь, и число его подписчиков.
+ */
+public record Followee(Long id, long followers) {
+}
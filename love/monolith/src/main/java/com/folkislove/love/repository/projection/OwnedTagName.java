@@ -0,0 +1,7 @@
+package com.folkislove.love.repository.projection;
+
+/**
+ * Имя тега вместе с id поста/события, к которому он привязан.
+ */
+public record OwnedTagName(Long ownerId, String name) {
+}
@@ -0,0 +1,28 @@
+package com.folkislove.love.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Строка ленты постов: все, что нужно для PostResponse, без загрузки сущностей.
+ * JPQL заполняет все поля, кроме tags - они добираются вторым запросом по id страницы.
+ */
+public record PostSummary(
+    Long id,
+    String title,
+    String content,
+    String authorUsername,
+    LocalDateTime createdAt,
+    int commentsCount,
+    List<String> tags
+) {
+
+    public PostSummary(Long id, String title, String content, String authorUsername,
+                       LocalDateTime createdAt, int commentsCount) {
+        this(id, title, content, authorUsername, createdAt, commentsCount, List.of());
+    }
+
+    public PostSummary withTags(List<String> tags) {
+        return new PostSummary(id, title, content, authorUsername, createdAt, commentsCount, tags);
+    }
+}
@@ -0,0 +1,7 @@
+package com.folkislove.love.repository.projection;
+
+/**
+ * Только id и username пользователя - для индексов в памяти.
+ */
+public record UserName(Long id, String username) {
+}
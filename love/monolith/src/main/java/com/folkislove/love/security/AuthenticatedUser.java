@@ -0,0 +1,32 @@
+package com.folkislove.love.security;
+
+import java.util.List;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.folkislove.common.enums.Role;
+
+/**
+ * Principal, собранный из проверенных claims токена без обращения к БД.
+ */
+public record AuthenticatedUser(
+    Long id,
+    String username,
+    Role role
+) implements AuthenticatedPrincipal {
+
+    public static AuthenticatedUser from(JwtClaims claims) {
+        return new AuthenticatedUser(claims.userId(), claims.username(), claims.role());
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
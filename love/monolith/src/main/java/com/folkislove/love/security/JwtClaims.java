@@ -0,0 +1,23 @@
+package com.folkislove.love.security;
+
+import java.time.Instant;
+
+import com.folkislove.common.enums.Role;
+
+/**
+ * Проверенные (подпись, issuer, audience, срок) данные JWT токена.
+ * userId может быть null у токенов, выпущенных до появления claim "uid".
+ */
+public record JwtClaims(
+    Long userId,
+    String username,
+    Role role,
+    long generation,
+    Instant issuedAt,
+    Instant expiresAt
+) {
+
+    public boolean isExpired(Instant now) {
+        return now.isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,127 @@
+package com.folkislove.love.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Подбирает стоимость BCrypt под текущее железо: самый большой work factor,
+ * при котором один хэш укладывается в заданный бюджет времени.
+ * Результат только подсказка для auth.hashing.strength: на разных узлах он разный.
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    public static final int MIN_BCRYPT_STRENGTH = 4;
+    public static final int MAX_BCRYPT_STRENGTH = 31;
+
+    private static final String ENCODING_ID_PREFIX = "bcrypt-";
+    private static final String SAMPLE_PASSWORD = "Calibration-Password-42!";
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibrator() {
+    }
+
+    public static int calibrate(Duration budget, int minStrength, int maxStrength) {
+        measure(MIN_BCRYPT_STRENGTH); // прогрев JIT
+
+        int chosen = minStrength;
+        Duration chosenTime = measure(minStrength);
+
+        // каждая следующая стоимость ровно вдвое дороже, меряем пока укладываемся
+        for (int strength = minStrength + 1; strength <= maxStrength; strength++) {
+            if (chosenTime.multipliedBy(2).compareTo(budget) > 0) {
+                break;
+            }
+            Duration time = measure(strength);
+            if (time.compareTo(budget) > 0) {
+                break;
+            }
+            chosen = strength;
+            chosenTime = time;
+        }
+
+        log.info("Password hash strength calibrated to {} ({} ms per hash, budget {} ms)",
+            chosen, chosenTime.toMillis(), budget.toMillis());
+        return chosen;
+    }
+
+    /**
+     * Медианное время одного хэша при данной стоимости.
+     */
+    public static Duration measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long[] samples = new long[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+
+    /**
+     * Delegating encoder с префиксом {bcrypt-N}: новые хэши получают стоимость strength,
+     * а upgradeEncoding срабатывает только для хэшей меньшей стоимости и для старых хэшей
+     * без префикса. Более дорогой хэш не пересчитывается: иначе узлы с разной
+     * стоимостью перехэшировали бы пароль друг за другом на каждом входе.
+     */
+    public static PasswordEncoder bcryptEncoder(int strength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        for (int s = MIN_BCRYPT_STRENGTH; s <= MAX_BCRYPT_STRENGTH; s++) {
+            encoders.put(encodingId(s), new BCryptPasswordEncoder(s));
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encodingId(strength), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new UpgradeToStrength(encoder, strength);
+    }
+
+    public static String encodingId(int strength) {
+        return ENCODING_ID_PREFIX + strength;
+    }
+
+    /**
+     * Стоимость из префикса {bcrypt-N}, -1 для хэша без префикса.
+     */
+    static int storedStrength(String encodedPassword) {
+        String prefix = "{" + ENCODING_ID_PREFIX;
+        if (encodedPassword == null || !encodedPassword.startsWith(prefix)) {
+            return -1;
+        }
+        int end = encodedPassword.indexOf('}');
+        try {
+            return Integer.parseInt(encodedPassword.substring(prefix.length(), end));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private record UpgradeToStrength(PasswordEncoder delegate, int strength) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return storedStrength(encodedPassword) < strength;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.folkislove.love.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Набор token bucket'ов по ключу клиента. ConcurrentHashMap уже разбит на независимые
+ * бины, а сами ведра lock-free, так что запросы разных клиентов друг друга не блокируют.
+ * Число ключей ограничено: сначала выбрасываются простаивающие (полностью пополненные)
+ * ведра, если их не хватило - произвольная восьмая часть.
+ */
+public class RateLimiter {
+
+    private final int capacity;
+    private final double refillPerSecond;
+    private final int maxKeys;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @return 0, если запрос разрешен, иначе сколько наносекунд клиенту ждать
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evict(nowNanos);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond, nowNanos));
+        }
+        return bucket.tryConsume(nowNanos);
+    }
+
+    /**
+     * Выбрасывает ведра клиентов, которые успели полностью пополниться.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // private helpers
+
+    private void evict(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+
+        int toRemove = buckets.size() - maxKeys + Math.max(1, maxKeys / 8);
+        Iterator<String> it = buckets.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
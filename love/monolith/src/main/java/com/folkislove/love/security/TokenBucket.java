@@ -0,0 +1,52 @@
+package com.folkislove.love.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket в форме GCRA: вместо пары (токены, время) хранится одно
+ * число - "теоретическое время прибытия" следующего запроса, и оно двигается CAS.
+ * Ведро полное, когда это время уже в прошлом.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;  // время на пополнение одного токена
+    private final long burstNanos;     // capacity * interval
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Bucket capacity and refill rate must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Пытается взять один токен.
+     *
+     * @return 0, если токен взят, иначе сколько наносекунд ждать до следующего
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, nowNanos);
+            long next = base + intervalNanos;
+            long waitNanos = next - burstNanos - nowNanos;
+
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Полное ведро ничем не отличается от нового, такую запись можно выбросить без потерь.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,126 @@
+package com.folkislove.love.security;
+
+import com.folkislove.love.model.TokenRevocation;
+import com.folkislove.love.repository.TokenRevocationRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Таблица поколений токенов.
+ * Каждый токен несет claim "gen"; revokeAll увеличивает поколение пользователя,
+ * и все ранее выданные ему токены перестают приниматься без похода в БД.
+ *
+ * Проверка идет по копии в памяти. Отзыв сразу пишется и в таблицу token_revocations, а каждый
+ * узел подтягивает ее при старте (до приема запросов) и раз в jwt.revocation-sync-ms. Поэтому
+ * отзыв переживает рестарт, а на остальных узлах старые токены принимаются не дольше
+ * интервала синхронизации.
+ *
+ * Запись можно забыть, когда все токены старого поколения уже истекли. Поэтому поколение
+ * не счетчик, а не меньше текущего времени в мс: после забытой записи следующий отзыв
+ * все равно выше поколения любого выданного раньше токена.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry implements SmartInitializingSingleton {
+
+    private record Revocation(long generation, Instant revokedAt) {}
+
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    private final TokenRevocationRepository revocationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration tokenLifetime;
+
+    public TokenRevocationRegistry(
+        TokenRevocationRepository revocationRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${jwt.expiration-ms}") long expirationMs
+    ) {
+        this.revocationRepository = revocationRepository;
+        // отзыв бывает и после коммита чужой транзакции (удаление пользователя) - нужна своя
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tokenLifetime = Duration.ofMillis(expirationMs);
+    }
+
+    public long currentGeneration(String username) {
+        Revocation revocation = revocations.get(username);
+        return revocation == null ? 0 : revocation.generation();
+    }
+
+    /**
+     * Отзывает все выданные пользователю токены
+     * (logout, удаление пользователя, смена роли).
+     */
+    public void revokeAll(String username) {
+        Instant now = Instant.now();
+        Revocation revocation = revocations.compute(username, (name, old) ->
+            new Revocation(Math.max(now.toEpochMilli(), old == null ? 0 : old.generation() + 1), now)
+        );
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // поколение могли поднять на другом узле после нашей последней синхронизации
+                long stored = revocationRepository.findById(username).map(TokenRevocation::getGeneration).orElse(0L);
+                long generation = Math.max(revocation.generation(), stored + 1);
+                revocationRepository.save(new TokenRevocation(username, generation, now));
+                merge(username, new Revocation(generation, now));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist token revocation for {}, it holds on this node only", username, e);
+        }
+        pruneStale(now);
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        return claims.generation() < currentGeneration(claims.username());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        sync();
+    }
+
+    /**
+     * Подтягивает отзывы, сделанные на других узлах, и удаляет из таблицы истекшие.
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation-sync-ms:10000}", fixedDelayString = "${jwt.revocation-sync-ms:10000}")
+    public void sync() {
+        Instant now = Instant.now();
+        Instant horizon = now.minus(tokenLifetime);
+        try {
+            List<TokenRevocation> rows = transactionTemplate.execute(status -> {
+                revocationRepository.deleteRevokedBefore(horizon);
+                return revocationRepository.findByRevokedAtAfter(horizon);
+            });
+            rows.forEach(row -> merge(row.getUsername(), new Revocation(row.getGeneration(), row.getRevokedAt())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync token revocations, will retry", e);
+        }
+        pruneStale(now);
+    }
+
+    // private helpers
+
+    private void merge(String username, Revocation revocation) {
+        revocations.merge(username, revocation, (old, fresh) -> old.generation() >= fresh.generation() ? old : fresh);
+    }
+
+    private void pruneStale(Instant now) {
+        Instant horizon = now.minus(tokenLifetime);
+        revocations.values().removeIf(revocation -> revocation.revokedAt().isBefore(horizon));
+    }
+}
@@ -0,0 +1,80 @@
+package com.folkislove.love.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограниченный по размеру кэш уже проверенных токенов.
+ * Ключ - SHA-256 от токена (сами токены в памяти не храним),
+ * запись живет до exp токена.
+ */
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final int maxSize;
+    private final Map<String, JwtClaims> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Возвращает claims, если токен уже проверялся и еще не истек, иначе null.
+     */
+    public JwtClaims get(String token) {
+        String key = digest(token);
+        JwtClaims claims = entries.get(key);
+
+        if (claims != null && claims.isExpired(Instant.now())) {
+            entries.remove(key, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    public void put(String token, JwtClaims claims) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), claims);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // private helpers
+
+    private void evict() {
+        Instant now = Instant.now();
+        entries.values().removeIf(claims -> claims.isExpired(now));
+
+        // если все записи живые - выкидываем произвольную восьмую часть
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 8);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA_256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+}
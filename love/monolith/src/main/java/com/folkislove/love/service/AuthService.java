@@ -9,6 +9,7 @@ import com.folkislove.love.exception.custom.EmailAlreadyRegisteredException;
 import com.folkislove.love.exception.custom.UsernameAlreadyTakenException;
 import com.folkislove.love.model.User;
 import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.security.TokenRevocationRegistry;
 import com.folkislove.love.util.UserCredentialsValidator;
 
 import lombok.AllArgsConstructor;
@@ -21,6 +22,10 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final UserCredentialsValidator credentialsValidator;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final CurrentUserService currentUserService;
+    private final AvailabilityService availabilityService;
+    private final SuggestionService suggestionService;
 
     public String login(String username, String password) {
         User user = userRepository.findByUsername(username)
@@ -30,7 +35,20 @@ public class AuthService {
             throw new AuthorizationException("Invalid username or password");
         }
 
-        return jwtService.generateToken(user);
+        // хэш другой стоимости (или старый без префикса) - пересчитываем, пока знаем пароль
+        if (passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            user.setPasswordHash(passwordEncoder.encode(password));
+            userRepository.save(user);
+        }
+
+        return jwtService.generateToken(user, revocationRegistry.currentGeneration(username));
+    }
+
+    /**
+     * Отзывает все токены текущего пользователя (выход на всех устройствах).
+     */
+    public void logout() {
+        revocationRegistry.revokeAll(currentUserService.getCurrentUsername());
     }
 
     public User register(String username, String email, String password) {
@@ -38,11 +56,11 @@ public class AuthService {
         credentialsValidator.validateEmail(email);
         credentialsValidator.validatePassword(password);
 
-        if (userRepository.existsByUsername(username)) {
+        if (!availabilityService.isUsernameAvailable(username)) {
             throw new UsernameAlreadyTakenException(username);
         }
 
-        if (userRepository.existsByEmail(email)) {
+        if (!availabilityService.isEmailAvailable(email)) {
             throw new EmailAlreadyRegisteredException(email);
         }
 
@@ -53,6 +71,19 @@ public class AuthService {
             .role(Role.USER)
             .build();
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        availabilityService.recordRegistration(username, email);
+        suggestionService.userRegistered(saved.getId(), saved.getUsername());
+        return saved;
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        credentialsValidator.validateUsername(username);
+        return availabilityService.isUsernameAvailable(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        credentialsValidator.validateEmail(email);
+        return availabilityService.isEmailAvailable(email);
     }
 }
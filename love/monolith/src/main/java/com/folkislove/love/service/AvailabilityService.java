@@ -0,0 +1,111 @@
+package com.folkislove.love.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.util.BloomFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory фильтры Блума по занятым username и email.
+ * "Точно свободно" отвечается без MySQL, в остальных случаях идем в БД.
+ * Строится из UserRepository при старте и пополняется при регистрации.
+ * Удаленные пользователи из фильтра не исчезают - для них просто будет запрос в БД.
+ */
+@Slf4j
+@Service
+public class AvailabilityService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    private volatile boolean ready;
+
+    // регистрации, пришедшие во время перестроения фильтров
+    private volatile boolean rebuilding;
+    private final Queue<String[]> registeredDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    public AvailabilityService(
+        UserRepository userRepository,
+        @Value("${auth.availability.expected-users:1000000}") long expectedUsers
+    ) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.usernames = new BloomFilter(expectedUsers, FALSE_POSITIVE_RATE);
+        this.emails = new BloomFilter(expectedUsers, FALSE_POSITIVE_RATE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilding = true;
+        try {
+            List<String> allUsernames = userRepository.findAllUsernames();
+            List<String> allEmails = userRepository.findAllEmails();
+            long capacity = Math.max(expectedUsers, 2L * allUsernames.size());
+
+            BloomFilter newUsernames = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            BloomFilter newEmails = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            allUsernames.forEach(username -> newUsernames.put(normalize(username)));
+            allEmails.forEach(email -> newEmails.put(normalize(email)));
+
+            usernames = newUsernames;
+            emails = newEmails;
+
+            String[] registered;
+            while ((registered = registeredDuringRebuild.poll()) != null) {
+                newUsernames.put(registered[0]);
+                newEmails.put(registered[1]);
+            }
+            ready = true;
+
+            log.info("Availability filters built for {} users", allUsernames.size());
+        } finally {
+            rebuilding = false;
+            registeredDuringRebuild.clear();
+        }
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (ready && !usernames.mightContain(normalize(username))) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (ready && !emails.mightContain(normalize(email))) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+
+    public void recordRegistration(String username, String email) {
+        String normalizedUsername = normalize(username);
+        String normalizedEmail = normalize(email);
+
+        usernames.put(normalizedUsername);
+        emails.put(normalizedEmail);
+
+        if (rebuilding) {
+            registeredDuringRebuild.add(new String[] { normalizedUsername, normalizedEmail });
+        }
+    }
+
+    // MySQL сравнивает строки без учета регистра, так что и фильтр строим по lower case
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
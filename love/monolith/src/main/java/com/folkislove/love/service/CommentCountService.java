@@ -0,0 +1,171 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.util.AfterCommit;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Счетчик комментариев поста (posts.comments_count).
+ *
+ * Изменения не пишутся в строку поста сразу - иначе все комментарии к популярному посту
+ * выстраиваются в очередь на одну блокировку строки. Дельты копятся в памяти по полосам
+ * (stripe на поток, внутри - postId -> delta) и раз в comments.count-flush-ms сбрасываются
+ * одним batch UPDATE в одной транзакции: при ошибке откатывается весь batch, и все дельты
+ * возвращаются в очередь. Счетчик в ответах может отставать на один интервал сброса.
+ *
+ * Колонка появилась позже самих комментариев, поэтому первый запуск заполняет ее по таблице
+ * comments (отметка в data_migrations, выполняется ровно один раз на кластер). Это происходит
+ * до приема запросов и до первого сброса, так что дельты этого узла не считаются дважды.
+ *
+ * Повторная сверка (comments.count-reconcile-on-startup) - ручной ремонт: это UPDATE всей
+ * таблицы posts, и на работающем кластере он теряет несброшенные дельты других узлов.
+ */
+@Slf4j
+@Service
+public class CommentCountService implements SmartInitializingSingleton {
+
+    static final String BACKFILL_MIGRATION = "posts.comments_count.backfill";
+
+    private static final String FLUSH_SQL =
+        "update posts set comments_count = comments_count + ? where id = ?";
+
+    private static final String RECONCILE_SQL =
+        "update posts set comments_count = (select count(*) from comments c where c.post_id = posts.id)";
+
+    private static final String MARK_MIGRATION_SQL =
+        "insert into data_migrations (id, applied_at) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reconcileOnStartup;
+    private final List<ConcurrentHashMap<Long, Long>> stripes;
+
+    public CommentCountService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        @Value("${comments.count-reconcile-on-startup:false}") boolean reconcileOnStartup
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileOnStartup = reconcileOnStartup;
+
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        this.stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    public void commentAdded(Long postId) {
+        AfterCommit.run(() -> add(postId, 1));
+    }
+
+    public void commentRemoved(Long postId) {
+        AfterCommit.run(() -> add(postId, -1));
+    }
+
+    /**
+     * Дельта, еще не записанная в БД.
+     */
+    public long pendingDelta(Long postId) {
+        long delta = 0;
+        for (Map<Long, Long> stripe : stripes) {
+            delta += stripe.getOrDefault(postId, 0L);
+        }
+        return delta;
+    }
+
+    @Scheduled(fixedDelayString = "${comments.count-flush-ms:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Long, Long> totals = drain();
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        // по возрастанию id, чтобы параллельные транзакции брали блокировки в одном порядке
+        List<Object[]> batch = new ArrayList<>(totals.size());
+        totals.forEach((postId, delta) -> batch.add(new Object[] { delta, postId }));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush comment counters for {} posts, will retry", totals.size(), e);
+            totals.forEach(this::add);
+        }
+    }
+
+    /**
+     * Выполняется до старта веб-сервера и планировщика, то есть до первого сброса дельт.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (reconcileOnStartup) {
+            int updated = jdbcTemplate.update(RECONCILE_SQL);
+            log.info("Reconciled comment counters for {} posts", updated);
+            return;
+        }
+        backfill();
+    }
+
+    /**
+     * Разовое заполнение comments_count; false, если его уже выполнил этот или другой узел.
+     */
+    public boolean backfill() {
+        try {
+            Integer updated = transactionTemplate.execute(status -> {
+                // параллельный узел ждет здесь на блокировке ключа и получает дубликат после нашего коммита
+                jdbcTemplate.update(MARK_MIGRATION_SQL, BACKFILL_MIGRATION, Timestamp.from(Instant.now()));
+                return jdbcTemplate.update(RECONCILE_SQL);
+            });
+            log.info("Backfilled comment counters for {} posts", updated);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // private helpers
+
+    private void add(Long postId, long delta) {
+        stripes.get(stripeIndex()).merge(postId, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private Map<Long, Long> drain() {
+        Map<Long, Long> totals = new TreeMap<>();
+        for (ConcurrentHashMap<Long, Long> stripe : stripes) {
+            for (Long postId : stripe.keySet()) {
+                // remove атомарно забирает значение, дельта, пришедшая позже, создаст новую запись
+                Long delta = stripe.remove(postId);
+                if (delta != null) {
+                    totals.merge(postId, delta, Long::sum);
+                }
+            }
+        }
+        totals.values().removeIf(delta -> delta == 0);
+        return totals;
+    }
+
+    private int stripeIndex() {
+        return (int) (Thread.currentThread().threadId() & (stripes.size() - 1));
+    }
+}
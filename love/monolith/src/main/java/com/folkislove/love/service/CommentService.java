@@ -1,17 +1,27 @@
 package com.folkislove.love.service;
 
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.exception.AppException;
+import com.folkislove.love.exception.custom.AccessDeniedException;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
 import com.folkislove.love.model.Comment;
 import com.folkislove.love.model.Post;
 import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.util.ApproximateCountCache;
+import com.folkislove.love.util.PageCursor;
 
 import lombok.AllArgsConstructor;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @AllArgsConstructor
 public class CommentService {
@@ -19,16 +29,42 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostService postService;
     private final CurrentUserService currentUserService;
+    private final CommentCountService commentCountService;
+    private final SearchService searchService;
+    private final ApproximateCountCache countCache;
 
     @Transactional(readOnly = true)
     public Comment findCommentById(Long commentId) {
-        return commentRepository.findById(commentId)
+        return commentRepository.findWithAuthorById(commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment", commentId));
     }
 
     @Transactional(readOnly = true)
     public Page<Comment> getCommentsByPostId(Long postId, Pageable pageable) {
-        return commentRepository.findByPostId(postId, pageable);
+        List<Comment> comments = commentRepository.findByPostId(postId, pageable);
+        if (comments.isEmpty()) {
+            postService.checkPostExists(postId);
+        }
+        return PageableExecutionUtils.getPage(comments, pageable,
+            () -> countCache.get("comments.post:" + postId, () -> commentRepository.countByPostId(postId)));
+    }
+
+    /**
+     * Keyset пагинация: комментарии в порядке написания, без OFFSET и без COUNT.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Comment> getCommentsByPostIdAfter(Long postId, String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        Limit limit = PageCursor.limit(size);
+
+        List<Comment> rows = cursor == null
+            ? commentRepository.findOldestByPostId(postId, limit)
+            : commentRepository.findByPostIdAfter(postId, cursor.key(), cursor.id(), limit);
+        if (rows.isEmpty()) {
+            postService.checkPostExists(postId);
+        }
+
+        return PageCursor.page(rows, size, comment -> new PageCursor(comment.getCreatedAt(), comment.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -46,25 +82,44 @@ public class CommentService {
                 .content(content)
                 .build();
 
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        commentCountService.commentAdded(postId);
+        searchService.commentSaved(saved.getId(), content);
+        return saved;
     }
 
+    /**
+     * Один условный UPDATE (id + автор или админ), затем загрузка для ответа.
+     */
     @Transactional
     public Comment editComment(Long commentId, String content) {
-        Comment comment = findCommentById(commentId);
-
-        currentUserService.checkIsOwnerOrAdmin(comment.getAuthor().getUsername());
-
-        comment.setContent(content);
-        return commentRepository.save(comment);
+        int updated = commentRepository.updateContentIfOwned(
+            commentId, content, LocalDateTime.now(),
+            currentUserService.getCurrentUserId(), currentUserService.isAdmin()
+        );
+        if (updated == 0) {
+            throw notFoundOrDenied(commentId);
+        }
+        searchService.commentSaved(commentId, content);
+        return findCommentById(commentId);
     }
 
     @Transactional
     public void deleteComment(Long commentId) {
-        Comment comment = findCommentById(commentId);
+        Long postId = commentRepository.findPostIdIfOwned(
+            commentId, currentUserService.getCurrentUserId(), currentUserService.isAdmin()
+        ).orElseThrow(() -> notFoundOrDenied(commentId));
+
+        commentRepository.deleteInBulkById(commentId);
+        commentCountService.commentRemoved(postId);
+        searchService.commentDeleted(commentId);
+    }
 
-        currentUserService.checkIsOwnerOrAdmin(comment.getAuthor().getUsername());
+    // private helpers
 
-        commentRepository.delete(comment);
+    private AppException notFoundOrDenied(Long commentId) {
+        return commentRepository.existsVisibleById(commentId)
+            ? new AccessDeniedException("You don't have permission to access this resource")
+            : new ResourceNotFoundException("Comment", commentId);
     }
 }
@@ -6,6 +6,7 @@ import com.folkislove.love.exception.custom.AuthorizationException;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
 import com.folkislove.love.model.User;
 import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.security.AuthenticatedUser;
 
 import lombok.AllArgsConstructor;
 
@@ -13,11 +14,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
 @AllArgsConstructor
 public class CurrentUserService {
 
+    private static final String CONTEXT_ATTRIBUTE = CurrentUserService.class.getName() + ".CONTEXT";
+
     private final UserRepository userRepository;
 
     public String getCurrentUsername() {
@@ -29,13 +34,58 @@ public class CurrentUserService {
         return auth.getName();
     }
 
+    /**
+     * Загружает текущего пользователя не больше одного раза за HTTP запрос:
+     * контроллеры и сервисы одного запроса получают один и тот же объект.
+     */
     public User getCurrentUser() {
         String username = getCurrentUsername();
-        return userRepository.findByUsername(username)
+        RequestContext context = requestContext();
+
+        if (context != null && context.user != null && context.user.getUsername().equals(username)) {
+            return context.user;
+        }
+
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", username));
+
+        if (context != null) {
+            context.user = user;
+            context.lookups++;
+        }
+        return user;
+    }
+
+    /**
+     * Легковесное представление текущего пользователя (id, username, role).
+     * Если запрос аутентифицирован по claims токена - обходится без БД.
+     */
+    public AuthenticatedUser getCurrentPrincipal() {
+        Authentication auth = getAuthentication();
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal && principal.id() != null) {
+            return principal;
+        }
+        User user = getCurrentUser();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    public Long getCurrentUserId() {
+        return getCurrentPrincipal().id();
+    }
+
+    /**
+     * Сколько раз за текущий запрос пользователь загружался из БД.
+     */
+    public int getUserLookupCount() {
+        RequestContext context = requestContext();
+        return context == null ? 0 : context.lookups;
     }
 
     public boolean isAdmin() {
+        Authentication auth = getAuthentication();
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.role() == Role.ADMIN;
+        }
         User user = getCurrentUser();
         return user.getRole() == Role.ADMIN;
     }
@@ -48,6 +98,15 @@ public class CurrentUserService {
         return isOwner(username) || isAdmin();
     }
 
+    /**
+     * То же, что checkIsOwnerOrAdmin, но по id автора: без загрузки пользователей из БД.
+     */
+    public void checkIsAuthorOrAdmin(Long authorId) {
+        if (!getCurrentUserId().equals(authorId) && !isAdmin()) {
+            throw new AccessDeniedException("You don't have permission to access this resource");
+        }
+    }
+
     public void checkIsAdmin() {
         if (!isAdmin()) {
             throw new AccessDeniedException("You are not admin");
@@ -65,7 +124,7 @@ public class CurrentUserService {
             throw new AccessDeniedException("You don't have permission to access this resource");
         }
     }
-    
+
     // private helper method to get Authentication object
 
     private Authentication getAuthentication() {
@@ -75,4 +134,27 @@ public class CurrentUserService {
         }
         return auth;
     }
+
+    // контекст текущего пользователя, живет в атрибутах запроса
+
+    private static final class RequestContext {
+        private User user;
+        private int lookups;
+    }
+
+    private RequestContext requestContext() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Object context = attributes.getAttribute(CONTEXT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (context instanceof RequestContext requestContext) {
+            return requestContext;
+        }
+
+        RequestContext created = new RequestContext();
+        attributes.setAttribute(CONTEXT_ATTRIBUTE, created, RequestAttributes.SCOPE_REQUEST);
+        return created;
+    }
 }
@@ -1,20 +1,39 @@
 package com.folkislove.love.service;
 
 import com.folkislove.love.model.Event;
-import com.folkislove.love.model.Tag;
 import com.folkislove.love.repository.EventRepository;
+import com.folkislove.love.repository.EventSpecifications;
+import com.folkislove.love.repository.projection.EventSummary;
+import com.folkislove.love.repository.projection.OwnedTagName;
 import com.folkislove.common.dto.request.EventRequest;
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.exception.AppException;
+import com.folkislove.love.exception.custom.AccessDeniedException;
+import com.folkislove.love.exception.custom.InvalidEventFilterException;
 import com.folkislove.love.exception.custom.InvalidEventDateException;
+import com.folkislove.love.exception.custom.InvalidTagQueryException;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
+import com.folkislove.love.util.ApproximateCountCache;
+import com.folkislove.love.util.PageCursor;
 
 import lombok.AllArgsConstructor;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -22,30 +41,88 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class EventService {
 
+    public static final int MIN_TEXT_LENGTH = 2;
+    public static final int MAX_TEXT_LENGTH = 100;
+
+    /**
+     * Фильтры поиска событий; null или пустая коллекция - фильтра нет.
+     * Даты включительно, text ищется в названии и месте проведения.
+     */
+    public record Filter(
+        String country,
+        String city,
+        LocalDate from,
+        LocalDate to,
+        Collection<Long> tagIds,
+        TagIndexService.Mode mode,
+        Collection<Long> excludedTagIds,
+        String text
+    ) {
+    }
+
     private final EventRepository eventRepository;
     private final TagService tagService;
+    private final TagUsageService tagUsageService;
+    private final UpcomingEventIndexService upcomingEventIndexService;
     private final CurrentUserService currentUserService;
+    private final ApproximateCountCache countCache;
 
     @Transactional(readOnly = true)
-    public Page<Event> getAllEvents(Pageable pageable) {
-        return eventRepository.findAll(pageable);
+    public Page<EventSummary> getAllEvents(Pageable pageable) {
+        List<EventSummary> events = withTags(eventRepository.findSummaries(pageable));
+        return PageableExecutionUtils.getPage(events, pageable,
+            () -> countCache.get("events", eventRepository::count));
     }
 
     @Transactional(readOnly = true)
     public Event getEventById(Long eventId) {
-        return eventRepository.findById(eventId)
+        return eventRepository.findWithAuthorAndTagsById(eventId)
             .orElseThrow(() -> new ResourceNotFoundException("Event", eventId));
     }
 
     @Transactional(readOnly = true)
-    public Page<Event> getEventsByTag(Long tagId, Pageable pagable) {
-        return eventRepository.findByTags_Id(tagId, pagable);
+    public Page<EventSummary> getEventsByTag(Long tagId, Pageable pagable) {
+        List<EventSummary> events = withTags(eventRepository.findSummariesByTagId(tagId, pagable));
+        return PageableExecutionUtils.getPage(events, pagable,
+            () -> countCache.get("events.tag:" + tagId, () -> eventRepository.countByTagId(tagId)));
     }
 
+    /**
+     * Поиск событий по стране, городу, датам, тегам и тексту одним запросом, ближайшие первыми.
+     * Без начальной даты ищутся только предстоящие: так у запроса всегда есть условие на индекс по дате.
+     * Запрос только по тегам идет тем же путем (EXISTS по event_tags): окно дат и порядок
+     * не зависят от набора фильтров.
+     */
     @Transactional(readOnly = true)
-    public Page<Event> getUpcomingEvents(Pageable pageable) {
-        LocalDateTime now = LocalDateTime.now();
-        return eventRepository.findByDateTimeAfter(now, pageable);
+    public Page<EventSummary> search(Filter filter, Pageable pageable) {
+        filter = normalize(filter);
+        Pageable byDate = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+            Sort.by("dateTime", "id"));
+        Page<Event> events = eventRepository.findAll(specification(filter), byDate);
+        List<EventSummary> summaries = events.getContent().stream()
+            .map(EventService::summaryOf)
+            .toList();
+        return new PageImpl<>(withTags(summaries), pageable, events.getTotalElements());
+    }
+
+    /**
+     * Предстоящие события, ближайшие первыми, из UpcomingEventIndexService без запросов в БД.
+     */
+    public Page<EventSummary> getUpcomingEvents(Pageable pageable) {
+        return upcomingEventIndexService.upcoming(null, pageable);
+    }
+
+    public Page<EventSummary> getUpcomingEventsByTag(Long tagId, Pageable pageable) {
+        return upcomingEventIndexService.upcoming(tagId, pageable);
+    }
+
+    /**
+     * Keyset пагинация по предстоящим событиям: ближайшие первыми, без OFFSET и без COUNT.
+     */
+    public CursorPage<EventSummary> getUpcomingEventsAfter(String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        List<EventSummary> rows = upcomingEventIndexService.upcomingAfter(cursor, PageCursor.limit(size).max());
+        return PageCursor.page(rows, size, event -> new PageCursor(event.dateTime(), event.id()));
     }
 
     @Transactional
@@ -64,17 +141,21 @@ public class EventService {
             .venue(request.getVenue())
             .link(request.getLink())
             .author(currentUserService.getCurrentUser())
-            .tags(getTagsByIds(request.getTagIds()))
+            .tags(tagService.getTagsByIds(request.getTagIds()))
             .build();
 
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        Set<Long> tagIds = TagUsageService.idsOf(event.getTags());
+        tagUsageService.eventTagsChanged(Set.of(), tagIds);
+        upcomingEventIndexService.eventSaved(saved);
+        return saved;
     }
 
     @Transactional
     public Event editEvent(Long eventId, EventRequest request) {
-        Event event = getEventById(eventId);
-        currentUserService.checkIsOwnerOrAdmin(event.getAuthor().getUsername());
-        
+        Event event = eventRepository.findOwnedById(eventId, currentUserService.getCurrentUserId(), false)
+            .orElseThrow(() -> notFoundOrDenied(eventId));
+
         if (request.getDateTime() != null) {
             if (!request.getDateTime().isAfter(LocalDateTime.now())) {
                 throw new InvalidEventDateException();
@@ -87,26 +168,97 @@ public class EventService {
         if (request.getCountry() != null) event.setCountry(request.getCountry());
         if (request.getVenue() != null) event.setVenue(request.getVenue());
         if (request.getLink() != null) event.setLink(request.getLink());
-        if (request.getTagIds() != null) event.setTags(getTagsByIds(request.getTagIds()));
-
+        if (request.getTagIds() != null) {
+            Set<Long> before = TagUsageService.idsOf(event.getTags());
+            event.setTags(tagService.getTagsByIds(request.getTagIds()));
+            Set<Long> after = TagUsageService.idsOf(event.getTags());
+            tagUsageService.eventTagsChanged(before, after);
+        }
+        upcomingEventIndexService.eventSaved(event);
 
-        return eventRepository.save(event);
+        // event управляемый: изменения и строки event_tags уходят при коммите, без merge
+        return event;
     }
 
     @Transactional
     public void deleteEvent(Long eventId) {
-        Event event = getEventById(eventId);
-        currentUserService.checkIsOwnerOrAdmin(event.getAuthor().getUsername());
-        eventRepository.delete(event);
+        Long authorId = eventRepository.findAuthorIdById(eventId)
+            .orElseThrow(() -> new ResourceNotFoundException("Event", eventId));
+        currentUserService.checkIsAuthorOrAdmin(authorId);
+
+        List<Long> tagIds = eventRepository.findTagIdsById(eventId);
+        eventRepository.deleteTagLinks(eventId);
+        eventRepository.deleteInBulkById(eventId);
+        tagUsageService.eventTagsChanged(tagIds, List.of());
+        upcomingEventIndexService.eventDeleted(eventId);
     }
 
     // private methods-
 
-    private Set<Tag> getTagsByIds(Set<Long> tagIds) {
-        if (tagIds == null || tagIds.isEmpty()) return Set.of();
+    private AppException notFoundOrDenied(Long eventId) {
+        return eventRepository.existsById(eventId)
+            ? new AccessDeniedException("You are not owner of this resource")
+            : new ResourceNotFoundException("Event", eventId);
+    }
+
+    private static Filter normalize(Filter filter) {
+        String text = blankToNull(filter.text());
+        if (text != null && (text.length() < MIN_TEXT_LENGTH || text.length() > MAX_TEXT_LENGTH)) {
+            throw new InvalidEventFilterException(
+                "Search text must be " + MIN_TEXT_LENGTH + " to " + MAX_TEXT_LENGTH + " characters");
+        }
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new InvalidEventFilterException("Date range start must not be after its end");
+        }
+        Collection<Long> tagIds = filter.tagIds() == null ? List.of() : filter.tagIds();
+        Collection<Long> excluded = filter.excludedTagIds() == null ? List.of() : filter.excludedTagIds();
+        if (tagIds.size() + excluded.size() > TagIndexService.MAX_QUERY_TAGS) {
+            throw new InvalidTagQueryException("Too many tags in query, max " + TagIndexService.MAX_QUERY_TAGS);
+        }
+        return new Filter(blankToNull(filter.country()), blankToNull(filter.city()), filter.from(), filter.to(),
+            tagIds, filter.mode() == null ? TagIndexService.Mode.ALL : filter.mode(), excluded, text);
+    }
+
+    private static Specification<Event> specification(Filter filter) {
+        List<Specification<Event>> specs = new ArrayList<>();
+        if (filter.country() != null) specs.add(EventSpecifications.inCountry(filter.country()));
+        if (filter.city() != null) specs.add(EventSpecifications.inCity(filter.city()));
+        specs.add(EventSpecifications.startingFrom(
+            filter.from() == null ? LocalDateTime.now() : filter.from().atStartOfDay()));
+        if (filter.to() != null) specs.add(EventSpecifications.startingBefore(filter.to().plusDays(1).atStartOfDay()));
+        if (!filter.tagIds().isEmpty()) {
+            specs.add(filter.mode() == TagIndexService.Mode.ANY
+                ? EventSpecifications.withAnyTag(filter.tagIds())
+                : EventSpecifications.withAllTags(filter.tagIds()));
+        }
+        if (!filter.excludedTagIds().isEmpty()) specs.add(EventSpecifications.withoutTags(filter.excludedTagIds()));
+        if (filter.text() != null) specs.add(EventSpecifications.titleOrVenueContains(filter.text()));
+        return Specification.allOf(specs);
+    }
+
+    // author загружен графом выборки, теги добавит withTags
+    private static EventSummary summaryOf(Event event) {
+        return new EventSummary(event.getId(), event.getTitle(), event.getDescription(), event.getDateTime(),
+            event.getCity(), event.getCountry(), event.getVenue(), event.getLink(),
+            event.getAuthor().getUsername(), event.getCreatedAt());
+    }
 
-        return tagIds.stream()
-            .map(tagService::getTagById)
-            .collect(Collectors.toSet());
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+
+    private List<EventSummary> withTags(List<EventSummary> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        List<Long> eventIds = events.stream().map(EventSummary::id).toList();
+        Map<Long, List<String>> tagsByEvent = eventRepository.findTagNamesByEventIds(eventIds).stream()
+            .collect(Collectors.groupingBy(
+                OwnedTagName::ownerId,
+                Collectors.mapping(OwnedTagName::name, Collectors.toList())
+            ));
+        return events.stream()
+            .map(event -> event.withTags(tagsByEvent.getOrDefault(event.id(), List.of())))
+            .toList();
     }
 }
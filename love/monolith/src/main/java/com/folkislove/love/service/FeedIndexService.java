@@ -0,0 +1,242 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.util.AfterCommit;
+import com.folkislove.love.util.RebuildJournal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Последние посты каждого тега для ленты по интересам.
+ *
+ * На тег хранится не больше feed.per-tag-capacity id постов по убыванию. Лента собирается
+ * слиянием списков тегов пользователя через кучу: стоимость O(size * log k) от размера
+ * страницы и числа интересов k, без запроса на каждый тег. Если список тега обрезан,
+ * его horizon - самый новый вытесненный id: ниже него память ничего не гарантирует,
+ * и продолжение ленты дочитывается из БД.
+ */
+@Slf4j
+@Service
+public class FeedIndexService {
+
+    private static final String RECENT_SQL = """
+        select tag_id, post_id from (
+            select pt.tag_id, pt.post_id,
+                   row_number() over (partition by pt.tag_id order by pt.post_id desc) as rn
+            from post_tags pt join posts p on p.id = pt.post_id
+            where p.deleted_at is null
+        ) ranked
+        where rn <= ?
+        order by tag_id, post_id desc
+        """;
+
+    /**
+     * Id постов по убыванию (не больше limit, без повторов) и граница, ниже которой
+     * их нужно искать в БД (0 - списки полные, в БД искать нечего).
+     */
+    public record Recent(List<Long> ids, long horizon) {
+    }
+
+    // неизменяемый список тега: читатели работают без блокировок
+    private record TagPosts(long[] ids, long horizon) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    // писатели (хуки, подмена) по одному, читатели без блокировок
+    private final Object writeLock = new Object();
+    private volatile ConcurrentHashMap<Long, TagPosts> byTag = new ConcurrentHashMap<>();
+    private final RebuildJournal<ConcurrentHashMap<Long, TagPosts>> journal = new RebuildJournal<>();
+
+    public FeedIndexService(
+        JdbcTemplate jdbcTemplate,
+        @Value("${feed.per-tag-capacity:200}") int capacity
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+    }
+
+    public void postTagsChanged(Long postId, Collection<Long> before, Collection<Long> after) {
+        AfterCommit.run(() -> {
+            synchronized (writeLock) {
+                journal.apply(byTag, target -> {
+                    for (Long tagId : before) {
+                        if (!after.contains(tagId)) {
+                            target.computeIfPresent(tagId, (id, posts) -> without(posts, postId));
+                        }
+                    }
+                    for (Long tagId : after) {
+                        target.compute(tagId, (id, posts) -> with(posts, postId));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Слияние списков тегов: посты старше before, новые первыми.
+     */
+    public Recent recent(Collection<Long> tagIds, long before, int limit) {
+        Map<Long, TagPosts> current = byTag;
+        List<TagPosts> lists = tagIds.stream().distinct().map(current::get).filter(Objects::nonNull).toList();
+        long horizon = lists.stream().mapToLong(TagPosts::horizon).max().orElse(0);
+
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(lists.size() + 1);
+        for (TagPosts posts : lists) {
+            Cursor cursor = new Cursor(posts.ids(), firstBelow(posts.ids(), before));
+            if (cursor.hasHead()) {
+                heads.add(cursor);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(limit);
+        long last = Long.MAX_VALUE;
+        while (!heads.isEmpty() && ids.size() < limit) {
+            Cursor cursor = heads.poll();
+            long id = cursor.head();
+            if (id <= horizon) {
+                break;
+            }
+            // один пост под несколькими тегами приходит из списков подряд
+            if (id != last) {
+                ids.add(id);
+                last = id;
+            }
+            cursor.position++;
+            if (cursor.hasHead()) {
+                heads.add(cursor);
+            }
+        }
+        return new Recent(ids, horizon);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${feed.rebuild-ms:600000}", fixedDelayString = "${feed.rebuild-ms:600000}")
+    public synchronized void rebuild() {
+        synchronized (writeLock) {
+            journal.open();
+        }
+        try {
+            ConcurrentHashMap<Long, TagPosts> fresh = load();
+            synchronized (writeLock) {
+                journal.replay(fresh);
+                byTag = fresh;
+            }
+            log.debug("Feed index rebuilt for {} tags", fresh.size());
+        } finally {
+            synchronized (writeLock) {
+                journal.close();
+            }
+        }
+    }
+
+    // private helpers
+
+    private ConcurrentHashMap<Long, TagPosts> load() {
+        Map<Long, List<Long>> recent = new HashMap<>();
+        // на одну строку больше емкости: по ней видно, что список обрезан
+        jdbcTemplate.query(RECENT_SQL, rs -> {
+            recent.computeIfAbsent(rs.getLong(1), tagId -> new ArrayList<>()).add(rs.getLong(2));
+        }, capacity + 1);
+
+        ConcurrentHashMap<Long, TagPosts> fresh = new ConcurrentHashMap<>();
+        recent.forEach((tagId, ids) -> {
+            long horizon = ids.size() > capacity ? ids.get(capacity) : 0;
+            long[] kept = ids.stream().limit(capacity).mapToLong(Long::longValue).toArray();
+            fresh.put(tagId, new TagPosts(kept, horizon));
+        });
+        return fresh;
+    }
+
+    private TagPosts with(TagPosts posts, long postId) {
+        if (posts == null) {
+            return new TagPosts(new long[] {postId}, 0);
+        }
+        long[] ids = posts.ids();
+        int at = firstBelow(ids, postId);
+        if (at > 0 && ids[at - 1] == postId) {
+            return posts;
+        }
+        if (at == capacity || postId <= posts.horizon()) {
+            // старее всего, что помещается в список
+            return new TagPosts(ids, Math.max(posts.horizon(), postId));
+        }
+
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, at);
+        updated[at] = postId;
+        System.arraycopy(ids, at, updated, at + 1, ids.length - at);
+        if (updated.length <= capacity) {
+            return new TagPosts(updated, posts.horizon());
+        }
+        return new TagPosts(Arrays.copyOf(updated, capacity), Math.max(posts.horizon(), updated[capacity]));
+    }
+
+    private static TagPosts without(TagPosts posts, long postId) {
+        long[] ids = posts.ids();
+        int at = firstBelow(ids, postId) - 1;
+        if (at < 0 || ids[at] != postId) {
+            return posts;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, at);
+        System.arraycopy(ids, at + 1, updated, at, ids.length - at - 1);
+        return new TagPosts(updated, posts.horizon());
+    }
+
+    // индекс первого id меньше value в массиве по убыванию
+    private static int firstBelow(long[] ids, long value) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] >= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final long[] ids;
+        private int position;
+
+        Cursor(long[] ids, int position) {
+            this.ids = ids;
+            this.position = position;
+        }
+
+        boolean hasHead() {
+            return position < ids.length;
+        }
+
+        long head() {
+            return ids[position];
+        }
+
+        // наибольший id первым
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(other.head(), head());
+        }
+    }
+}
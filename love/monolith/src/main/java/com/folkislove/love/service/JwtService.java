@@ -9,6 +9,8 @@ import org.springframework.stereotype.Service;
 import com.folkislove.common.enums.Role;
 import com.folkislove.love.exception.custom.JwtAuthenticationException;
 import com.folkislove.love.model.User;
+import com.folkislove.love.security.JwtClaims;
+import com.folkislove.love.security.VerifiedTokenCache;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
@@ -19,73 +21,117 @@ import javax.crypto.SecretKey;
 @Service
 public class JwtService {
 
+    private static final String ISSUER = "folkislove-api";
+    private static final String AUDIENCE = "folkislove-client";
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
     private final SecretKey secretKey;
 
     private final long expirationMs;
 
+    // JwtParser иммутабелен и потокобезопасен, собираем один раз
+    private final JwtParser parser;
+
+    private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(MAX_CACHED_TOKENS);
+
     public JwtService(
         @Value("${jwt.secret}") String secret,
         @Value("${jwt.expiration-ms}") long expiration
     ) {
         secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         expirationMs = expiration;
+        parser = Jwts.parser()
+            .verifyWith(secretKey)
+            .build();
     }
 
     public String generateToken(User user) {
+        return generateToken(user, 0);
+    }
+
+    /**
+     * @param generation поколение токенов пользователя, см. TokenRevocationRegistry
+     */
+    public String generateToken(User user, long generation) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationMs);
 
         return Jwts.builder()
             .subject(user.getUsername())
+            .claim("uid", user.getId())
             .claim("role", user.getRole().name())
-            .issuer("folkislove-api")
-            .audience().add("folkislove-client").and()
+            .claim("gen", generation)
+            .issuer(ISSUER)
+            .audience().add(AUDIENCE).and()
             .issuedAt(now)
             .expiration(expiryDate)
             .signWith(secretKey)
             .compact();
     }
 
+    /**
+     * Разбирает и проверяет токен ровно один раз.
+     * Повторные запросы с тем же токеном обслуживаются из кэша до истечения exp.
+     */
+    public JwtClaims parseToken(String token) {
+        JwtClaims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parseClaims(token);
+        String role = claims.get("role", String.class);
+        Long generation = claims.get("gen", Long.class);
+
+        JwtClaims verified = new JwtClaims(
+            claims.get("uid", Long.class),
+            claims.getSubject(),
+            role == null ? null : Role.valueOf(role),
+            generation == null ? 0 : generation,
+            claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+            claims.getExpiration().toInstant()
+        );
+
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return parseClaims(token).getSubject();
+        return parseToken(token).username();
     }
 
     public Role extractRole(String token) {
-        String role = parseClaims(token).get("role", String.class);
-        return com.folkislove.common.enums.Role.valueOf(role);
+        return parseToken(token).role();
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return tokenUsername.equals(username) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return parseClaims(token).getExpiration().before(new Date());
+        return parseToken(token).username().equals(username);
     }
 
     private Claims parseClaims(String token) {
         try {
-            Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
+            Claims claims = parser
                 .parseSignedClaims(token)
                 .getPayload();
 
-            if (!"folkislove-api".equals(claims.getIssuer())) {
+            if (!ISSUER.equals(claims.getIssuer())) {
                 throw new JwtAuthenticationException("Invalid JWT issuer");
             }
-            
+
             Set<String> audience = claims.getAudience();
-            if (audience == null || !audience.contains("folkislove-client")) {
+            if (audience == null || !audience.contains(AUDIENCE)) {
                 throw new JwtAuthenticationException("Invalid JWT audience");
             }
 
+            if (claims.getExpiration() == null) {
+                throw new JwtAuthenticationException("Invalid JWT token");
+            }
+
             return claims;
 
         } catch (ExpiredJwtException e) {
             throw new JwtAuthenticationException("JWT token expired");
-            
+
         } catch (JwtException e) {
             throw new JwtAuthenticationException("Invalid JWT token");
         }
@@ -0,0 +1,126 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.repository.PostRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Удаление постов вместе с комментариями.
+ *
+ * В режиме posts.purge.async пост только помечается deleted_at (один UPDATE, API сразу
+ * отвечает 204 и больше пост не видит), а комментарии, связи с тегами и сама строка
+ * вычищаются фоном пачками по chunk-size - каждая пачка в своей короткой транзакции.
+ * Иначе все удаляется сразу bulk DELETE'ами в транзакции запроса.
+ */
+@Slf4j
+@Service
+public class PostPurgeService {
+
+    private static final String FIND_TOMBSTONES_SQL =
+        "select id from posts where deleted_at is not null order by id limit ?";
+    private static final String FIND_COMMENT_CHUNK_SQL =
+        "select id from comments where post_id = ? order by id limit ?";
+    private static final String DELETE_COMMENT_CHUNK_SQL =
+        "delete from comments where post_id = ? and id <= ?";
+    private static final String DELETE_TAG_LINKS_SQL =
+        "delete from post_tags where post_id = ?";
+    private static final String DELETE_POST_SQL =
+        "delete from posts where id = ? and deleted_at is not null";
+
+    private static final int POSTS_PER_RUN = 100;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final SearchService searchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean async;
+    private final int chunkSize;
+
+    public PostPurgeService(
+        PostRepository postRepository,
+        CommentRepository commentRepository,
+        SearchService searchService,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        @Value("${posts.purge.async:true}") boolean async,
+        @Value("${posts.purge.chunk-size:1000}") int chunkSize
+    ) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.searchService = searchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.async = async;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Вызывается внутри транзакции, права уже проверены.
+     */
+    public void delete(Long postId) {
+        if (async) {
+            postRepository.markDeleted(postId, LocalDateTime.now());
+            return;
+        }
+        commentRepository.deleteInBulkByPostId(postId);
+        postRepository.deleteTagLinks(postId);
+        postRepository.deleteInBulkById(postId);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.purge.interval-ms:5000}")
+    public void purgeTombstones() {
+        List<Long> postIds = jdbcTemplate.queryForList(FIND_TOMBSTONES_SQL, Long.class, POSTS_PER_RUN);
+        for (Long postId : postIds) {
+            try {
+                purge(postId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge deleted post {}, will retry", postId, e);
+            }
+        }
+    }
+
+    /**
+     * @return сколько комментариев удалено
+     */
+    public long purge(Long postId) {
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> deleteCommentChunk(postId));
+            purged += deleted;
+        } while (deleted == chunkSize);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_TAG_LINKS_SQL, postId);
+            jdbcTemplate.update(DELETE_POST_SQL, postId);
+        });
+
+        log.info("Purged deleted post {} with {} comments", postId, purged);
+        return purged;
+    }
+
+    // private helpers
+
+    private int deleteCommentChunk(Long postId) {
+        List<Long> chunk = jdbcTemplate.queryForList(FIND_COMMENT_CHUNK_SQL, Long.class, postId, chunkSize);
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        // поиск обычно уже забыл их при пометке поста; на случай пометки с другого узла
+        searchService.commentsDeleted(chunk);
+        // id в пачке отсортированы, так что "id <= последний" удаляет ровно эту пачку
+        return jdbcTemplate.update(DELETE_COMMENT_CHUNK_SQL, postId, chunk.get(chunk.size() - 1));
+    }
+}
@@ -3,16 +3,32 @@ package com.folkislove.love.service;
 import com.folkislove.love.model.Post;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.OwnedTagName;
+import com.folkislove.love.repository.projection.PostSummary;
 import com.folkislove.common.dto.request.PostRequest;
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.exception.AppException;
+import com.folkislove.love.exception.custom.AccessDeniedException;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
+import com.folkislove.love.util.ApproximateCountCache;
+import com.folkislove.love.util.PageCursor;
 
 import lombok.AllArgsConstructor;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -21,32 +37,173 @@ import java.util.stream.Collectors;
 public class PostService {
 
     private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostPurgeService postPurgeService;
     private final TagService tagService;
+    private final TagUsageService tagUsageService;
+    private final TagIndexService tagIndexService;
+    private final FeedIndexService feedIndexService;
+    private final TimelineService timelineService;
+    private final SearchService searchService;
     private final CurrentUserService currentUserService;
+    private final ApproximateCountCache countCache;
 
+    /**
+     * Страница ленты за фиксированное число запросов (страница, count, теги),
+     * независимо от ее размера. Total может быть приблизительным, см. ApproximateCountCache.
+     */
     @Transactional(readOnly = true)
-    public Page<Post> getAllPosts(Pageable pageable) {
-        return postRepository.findAll(pageable);
+    public Page<PostSummary> getAllPosts(Pageable pageable) {
+        List<PostSummary> posts = withTags(postRepository.findSummaries(pageable));
+        return PageableExecutionUtils.getPage(posts, pageable,
+            () -> countCache.get("posts", postRepository::count));
     }
 
     @Transactional(readOnly = true)
-    public Page<Post> getPostsByTag(Long tagId, Pageable pageable) {
-        return postRepository.findAllByTags_Id(tagId, pageable);
+    public Page<PostSummary> getPostsByTag(Long tagId, Pageable pageable) {
+        List<PostSummary> posts = withTags(postRepository.findSummariesByTagId(tagId, pageable));
+        return PageableExecutionUtils.getPage(posts, pageable,
+            () -> countCache.get("posts.tag:" + tagId, () -> postRepository.countByTagId(tagId)));
+    }
+
+    /**
+     * Посты со всеми (ALL) или любым (ANY) из тегов, без исключенных: совпадения и total
+     * считаются по битовым картам TagIndexService, в БД - только строки страницы и их теги.
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummary> searchByTags(Collection<Long> tagIds, TagIndexService.Mode mode,
+                                          Collection<Long> excluded, Pageable pageable) {
+        Page<Long> ids = tagIndexService.searchPosts(tagIds, mode, excluded, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        List<PostSummary> posts = postRepository.findSummariesByIdIn(ids.getContent()).stream()
+            .sorted(Comparator.comparing(PostSummary::id).reversed())
+            .toList();
+        return new PageImpl<>(withTags(posts), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Keyset пагинация: новые посты первыми, без OFFSET и без COUNT.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummary> getPostsAfter(String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        Limit limit = PageCursor.limit(size);
+
+        List<PostSummary> rows = cursor == null
+            ? postRepository.findLatestSummaries(limit)
+            : postRepository.findSummariesBefore(cursor.key(), cursor.id(), limit);
+
+        return PageCursor.page(withTags(rows), size, post -> new PageCursor(post.createdAt(), post.id()));
+    }
+
+    /**
+     * Лента по интересам текущего пользователя, новые посты первыми (по id).
+     * Страница собирается из списков FeedIndexService; в БД идут только строки страницы
+     * и, для глубоких страниц за границей списков, keyset запрос по тегам интересов.
+     * Id, чьи посты уже удалены (tombstone еще не дошел до индекса этого узла), отсеиваются
+     * findSummariesByIdIn - тогда из индекса добирается следующая порция, чтобы на странице
+     * было size + 1 живых строк и hasNext оставался честным.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummary> getFeed(String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        int limit = PageCursor.limit(size).max();
+
+        List<Long> interests = userRepository.findInterestIdsById(currentUserService.getCurrentUserId());
+        if (interests.isEmpty()) {
+            return PageCursor.page(List.of(), size, post -> null);
+        }
+
+        List<PostSummary> rows = new ArrayList<>(limit);
+        long from = cursor == null ? Long.MAX_VALUE : cursor.id();
+        while (rows.size() < limit) {
+            int wanted = limit - rows.size();
+            FeedIndexService.Recent recent = feedIndexService.recent(interests, from, wanted);
+            if (!recent.ids().isEmpty()) {
+                postRepository.findSummariesByIdIn(recent.ids()).stream()
+                    .sorted(Comparator.comparing(PostSummary::id).reversed())
+                    .forEach(rows::add);
+                from = recent.ids().getLast();
+            }
+            if (recent.ids().size() < wanted) {
+                // списки кончились: дальше, если они не покрывают всю историю, - из БД
+                if (recent.horizon() > 0) {
+                    rows.addAll(postRepository.findSummariesByAnyTagBefore(interests, from, Limit.of(limit - rows.size())));
+                }
+                break;
+            }
+        }
+
+        return PageCursor.page(withTags(rows), size, post -> new PageCursor(post.createdAt(), post.id()));
+    }
+
+    /**
+     * Посты авторов, на которых подписан текущий пользователь, новые первыми (по id).
+     * Id страницы берутся из буфера TimelineService; из БД - строки страницы, посты
+     * авторов без раздачи и, для глубоких страниц, продолжение за границей буфера.
+     * Удаленные посты, оставшиеся в буфере, добираются следующей порцией, как в getFeed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummary> getTimeline(String after, int size) {
+        PageCursor cursor = PageCursor.decode(after);
+        int limit = PageCursor.limit(size).max();
+        long before = cursor == null ? Long.MAX_VALUE : cursor.id();
+        Long userId = currentUserService.getCurrentUserId();
+
+        TimelineService.Window window = timelineService.window(userId, before, limit);
+
+        List<PostSummary> rows = new ArrayList<>();
+        long from = before;
+        while (true) {
+            int wanted = limit - rows.size();
+            if (!window.ids().isEmpty()) {
+                rows.addAll(postRepository.findSummariesByIdIn(window.ids()));
+                from = window.ids().getLast();
+            }
+            if (window.ids().size() < wanted) {
+                if (window.horizon() > 0) {
+                    rows.addAll(postRepository.findSummariesByAuthorIdInBefore(
+                        window.pushAuthorIds(), from, Limit.of(limit - rows.size())));
+                }
+                break;
+            }
+            if (rows.size() >= limit) {
+                break;
+            }
+            window = timelineService.window(userId, from, limit - rows.size());
+        }
+        if (!window.pullAuthorIds().isEmpty()) {
+            rows.addAll(postRepository.findSummariesByAuthorIdInBefore(window.pullAuthorIds(), before, Limit.of(limit)));
+        }
+
+        List<PostSummary> page = rows.stream()
+            .sorted(Comparator.comparing(PostSummary::id).reversed())
+            .limit(limit)
+            .toList();
+        return PageCursor.page(withTags(page), size, post -> new PageCursor(post.createdAt(), post.id()));
     }
 
     @Transactional(readOnly = true)
     public Post getPostById(Long postId) {
-        return postRepository.findById(postId)
+        return postRepository.findWithAuthorAndTagsById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", postId));
     }
 
+    /**
+     * 404 для отсутствующего или удаленного (tombstone) поста, без загрузки строки.
+     */
+    @Transactional(readOnly = true)
+    public void checkPostExists(Long postId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", postId);
+        }
+    }
+
     @Transactional
     public Post createPost(PostRequest request) {
-        Set<Tag> tags = request
-                .getTagIds()
-                .stream()
-                .map(tagService::getTagById)
-                .collect(Collectors.toSet());
+        Set<Tag> tags = tagService.getTagsByIds(request.getTagIds());
 
         Post post = Post.builder()
                 .title(request.getTitle())
@@ -55,36 +212,84 @@ public class PostService {
                 .tags(tags)
                 .build();
 
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        Set<Long> tagIds = TagUsageService.idsOf(tags);
+        tagUsageService.postTagsChanged(Set.of(), tagIds);
+        tagIndexService.postTagsChanged(saved.getId(), Set.of(), tagIds);
+        feedIndexService.postTagsChanged(saved.getId(), Set.of(), tagIds);
+        timelineService.postCreated(saved.getAuthor().getId(), saved.getId());
+        searchService.postSaved(saved.getId(), saved.getTitle(), saved.getContent());
+        return saved;
     }
 
+    /**
+     * Редактировать может только автор: пост грузится запросом, в котором уже есть
+     * условие на автора, изменения уходят одним UPDATE при коммите.
+     */
     @Transactional
     public Post editPost(Long postId, PostRequest request) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", postId));
-
-        currentUserService.checkIsOwnerOrAdmin(post.getAuthor().getUsername());
+        Post post = postRepository.findOwnedById(postId, currentUserService.getCurrentUserId(), false)
+                .orElseThrow(() -> notFoundOrDenied(postId));
 
         if (request.getTitle() != null) post.setTitle(request.getTitle());
         if (request.getContent() != null) post.setContent(request.getContent());
+        if (request.getTitle() != null || request.getContent() != null) {
+            searchService.postSaved(postId, post.getTitle(), post.getContent());
+        }
 
         if (request.getTagIds() != null) {
-            Set<Tag> tags = request
-                .getTagIds()
-                .stream()
-                .map(tagService::getTagById)
-                .collect(Collectors.toSet());
-
-            post.setTags(tags);
+            Set<Long> before = TagUsageService.idsOf(post.getTags());
+            post.setTags(tagService.getTagsByIds(request.getTagIds()));
+            Set<Long> after = TagUsageService.idsOf(post.getTags());
+            tagUsageService.postTagsChanged(before, after);
+            tagIndexService.postTagsChanged(postId, before, after);
+            feedIndexService.postTagsChanged(postId, before, after);
         }
 
-        return postRepository.save(post);
+        // post управляемый: save() сделал бы merge и перечитал каждый тег по одному
+        return post;
     }
 
+    /**
+     * Удаление без загрузки поста и его комментариев: автор поста не меняется,
+     * поэтому проверка по author_id и следующее за ней удаление не разъезжаются.
+     */
     @Transactional
     public void deletePost(Long postId) {
-        Post post = getPostById(postId);
-        currentUserService.checkIsOwnerOrAdmin(post.getAuthor().getUsername());
-        postRepository.delete(post);
+        Long authorId = postRepository.findAuthorIdById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", postId));
+        currentUserService.checkIsAuthorOrAdmin(authorId);
+
+        List<Long> tagIds = postRepository.findTagIdsById(postId);
+        // до удаления: в синхронном режиме комментарии удаляются сразу, а индексу нужны их id
+        searchService.postDeleted(postId);
+        postPurgeService.delete(postId);
+        tagUsageService.postTagsChanged(tagIds, List.of());
+        tagIndexService.postTagsChanged(postId, tagIds, List.of());
+        feedIndexService.postTagsChanged(postId, tagIds, List.of());
+        timelineService.postDeleted(authorId, postId);
+    }
+
+    // private helpers
+
+    private AppException notFoundOrDenied(Long postId) {
+        return postRepository.existsById(postId)
+            ? new AccessDeniedException("You are not owner of this resource")
+            : new ResourceNotFoundException("Post", postId);
+    }
+
+    private List<PostSummary> withTags(List<PostSummary> posts) {
+        if (posts.isEmpty()) {
+            return posts;
+        }
+        List<Long> postIds = posts.stream().map(PostSummary::id).toList();
+        Map<Long, List<String>> tagsByPost = postRepository.findTagNamesByPostIds(postIds).stream()
+            .collect(Collectors.groupingBy(
+                OwnedTagName::ownerId,
+                Collectors.mapping(OwnedTagName::name, Collectors.toList())
+            ));
+        return posts.stream()
+            .map(post -> post.withTags(tagsByPost.getOrDefault(post.id(), List.of())))
+            .toList();
     }
 }
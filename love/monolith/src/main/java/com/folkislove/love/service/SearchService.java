@@ -0,0 +1,381 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.exception.custom.InvalidSearchQueryException;
+import com.folkislove.love.exception.custom.SearchSnapshotException;
+import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.projection.CommentText;
+import com.folkislove.love.repository.projection.PostSummary;
+import com.folkislove.love.util.AfterCommit;
+import com.folkislove.love.util.InvertedIndex;
+import com.folkislove.love.util.RebuildJournal;
+import com.folkislove.love.util.TextAnalyzer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск по постам (заголовок и текст) и комментариям.
+ *
+ * Индексы живут в памяти (InvertedIndex) и обновляются сервисами после коммита.
+ * При старте индекс читается из снимка search.snapshot-path и догоняется постами
+ * и комментариями новее снимка; без снимка - строится из БД. Правки и удаления,
+ * сделанные после снимка на остановленном узле, исправляет только перестройка.
+ * Из БД при поиске грузятся только найденные строки.
+ */
+@Slf4j
+@Service
+public class SearchService implements AutoCloseable {
+
+    public static final int MAX_QUERY_LENGTH = 200;
+    public static final int MAX_QUERY_TERMS = 10;
+
+    private static final int SNIPPET_LENGTH = 200;
+    private static final int SNIPPET_LEAD = 60;
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+
+    private static final String POSTS_SQL =
+        "select id, title, content from posts where deleted_at is null and id > ?";
+    private static final String COMMENTS_SQL =
+        "select c.id, c.content from comments c join posts p on p.id = c.post_id where p.deleted_at is null and c.id > ?";
+    private static final String POST_COMMENT_IDS_SQL =
+        "select id from comments where post_id = ?";
+
+    public enum Kind { POST, COMMENT }
+
+    public record Hit(Kind kind, Long id, Long postId, String title, String snippet, float score) {
+    }
+
+    // термы запроса; фразы в кавычках должны встретиться подряд
+    record Query(List<String> terms, List<List<String>> phrases) {
+    }
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String snapshotPath;
+    private final Index posts = new Index();
+    private final Index comments = new Index();
+
+    public SearchService(
+        PostRepository postRepository,
+        CommentRepository commentRepository,
+        JdbcTemplate jdbcTemplate,
+        @Value("${search.snapshot-path:}") String snapshotPath
+    ) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotPath = snapshotPath;
+    }
+
+    // изменения от сервисов, после коммита
+
+    public void postSaved(Long postId, String title, String content) {
+        AfterCommit.run(() -> posts.put(postId, TextAnalyzer.tokens(title + "\n" + content)));
+    }
+
+    /**
+     * Пост удален (или помечен tombstone): из индекса уходят и его комментарии, иначе
+     * они занимали бы места в top-k до перестройки. Id читаются сразу, в транзакции
+     * удаления - вызывать до того, как комментарии удалены.
+     */
+    public void postDeleted(Long postId) {
+        List<Long> commentIds = jdbcTemplate.queryForList(POST_COMMENT_IDS_SQL, Long.class, postId);
+        AfterCommit.run(() -> {
+            posts.remove(postId);
+            commentIds.forEach(comments::remove);
+        });
+    }
+
+    public void commentSaved(Long commentId, String content) {
+        AfterCommit.run(() -> comments.put(commentId, TextAnalyzer.tokens(content)));
+    }
+
+    public void commentDeleted(Long commentId) {
+        AfterCommit.run(() -> comments.remove(commentId));
+    }
+
+    // комментарии, удаленные пачкой в обход сервиса (фоновая очистка постов)
+    public void commentsDeleted(Collection<Long> commentIds) {
+        AfterCommit.run(() -> commentIds.forEach(comments::remove));
+    }
+
+    /**
+     * Лучшие по BM25 посты и комментарии вместе. Комментарии удаленных постов
+     * и строки, удаленные в обход индекса, отфильтровываются при загрузке.
+     */
+    public List<Hit> search(String q, int limit) {
+        Query query = parse(q);
+
+        List<InvertedIndex.Hit> postHits = posts.search(query, limit);
+        List<InvertedIndex.Hit> commentHits = comments.search(query, limit);
+
+        Map<Long, PostSummary> postsById = postHits.isEmpty() ? Map.of()
+            : postRepository.findSummariesByIdIn(ids(postHits)).stream()
+                .collect(Collectors.toMap(PostSummary::id, Function.identity()));
+        Map<Long, CommentText> commentsById = commentHits.isEmpty() ? Map.of()
+            : commentRepository.findTextsByIdIn(ids(commentHits)).stream()
+                .collect(Collectors.toMap(CommentText::id, Function.identity()));
+
+        List<Hit> hits = new ArrayList<>();
+        for (InvertedIndex.Hit hit : postHits) {
+            PostSummary post = postsById.get((long) hit.doc());
+            if (post != null) {
+                hits.add(new Hit(Kind.POST, post.id(), post.id(), post.title(),
+                    snippet(post.content(), query), hit.score()));
+            }
+        }
+        for (InvertedIndex.Hit hit : commentHits) {
+            CommentText comment = commentsById.get((long) hit.doc());
+            if (comment != null) {
+                hits.add(new Hit(Kind.COMMENT, comment.id(), comment.postId(), null,
+                    snippet(comment.content(), query), hit.score()));
+            }
+        }
+        return hits.stream()
+            .sorted(Comparator.comparingDouble(Hit::score).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    // команды обслуживания
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Path path = snapshotFile();
+        if (path != null && Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                posts.replace(InvertedIndex.readFrom(in));
+                comments.replace(InvertedIndex.readFrom(in));
+                int newPosts = indexPosts(posts, posts.maxDoc());
+                int newComments = indexComments(comments, comments.maxDoc());
+                log.info("Search index loaded from {}, caught up {} posts and {} comments", path, newPosts, newComments);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Search snapshot {} is unreadable, rebuilding from database", path, e);
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Полная перестройка из БД. Индексы строятся рядом и подменяются целиком, изменения,
+     * пришедшие во время чтения, проигрываются на них из журнала.
+     */
+    public synchronized void rebuild() {
+        posts.openJournal();
+        comments.openJournal();
+        try {
+            Index freshPosts = new Index();
+            Index freshComments = new Index();
+            int postCount = indexPosts(freshPosts, 0);
+            int commentCount = indexComments(freshComments, 0);
+            posts.replace(freshPosts.index);
+            comments.replace(freshComments.index);
+            log.info("Search index rebuilt: {} posts, {} comments", postCount, commentCount);
+        } finally {
+            posts.closeJournal();
+            comments.closeJournal();
+        }
+    }
+
+    /**
+     * Пишет оба индекса во временный файл и атомарно подменяет им снимок.
+     */
+    public void snapshot() {
+        Path path = snapshotFile();
+        if (path == null) {
+            throw new SearchSnapshotException("Search snapshot path is not configured");
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                posts.writeTo(out);
+                comments.writeTo(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Search index snapshot written to {}", path);
+        } catch (IOException e) {
+            throw new SearchSnapshotException("Failed to write search snapshot: " + e.getMessage());
+        }
+    }
+
+    // снимок при остановке: следующий старт не перечитывает БД
+    @Override
+    public void close() {
+        if (snapshotFile() != null) {
+            try {
+                snapshot();
+            } catch (SearchSnapshotException e) {
+                log.warn(e.getMessage());
+            }
+        }
+    }
+
+    // private helpers
+
+    static Query parse(String q) {
+        if (q == null || q.isBlank()) {
+            throw new InvalidSearchQueryException("Search query must not be empty");
+        }
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidSearchQueryException("Search query is too long, max " + MAX_QUERY_LENGTH + " characters");
+        }
+
+        List<List<String>> phrases = new ArrayList<>();
+        Matcher matcher = PHRASE.matcher(q);
+        while (matcher.find()) {
+            List<String> phrase = TextAnalyzer.tokens(matcher.group(1));
+            if (phrase.size() > 1) {
+                phrases.add(phrase);
+            }
+        }
+        List<String> terms = TextAnalyzer.tokens(q).stream().distinct().toList();
+
+        if (terms.isEmpty()) {
+            throw new InvalidSearchQueryException("Search query has no words");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new InvalidSearchQueryException("Too many words in search query, max " + MAX_QUERY_TERMS);
+        }
+        return new Query(terms, phrases);
+    }
+
+    // кусок текста вокруг первого найденного терма; позиция в свернутом тексте почти всегда та же
+    private static String snippet(String text, Query query) {
+        if (text.length() <= SNIPPET_LENGTH) {
+            return text;
+        }
+        String folded = TextAnalyzer.fold(text);
+        int match = query.terms().stream()
+            .mapToInt(folded::indexOf)
+            .filter(i -> i >= 0)
+            .min()
+            .orElse(0);
+        int start = Math.clamp(match - SNIPPET_LEAD, 0, text.length() - SNIPPET_LENGTH);
+        String snippet = text.substring(start, start + SNIPPET_LENGTH).strip();
+        return (start > 0 ? "…" : "") + snippet + (start + SNIPPET_LENGTH < text.length() ? "…" : "");
+    }
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(hit -> (long) hit.doc()).toList();
+    }
+
+    private int indexPosts(Index target, long afterId) {
+        int[] count = {0};
+        jdbcTemplate.query(POSTS_SQL, rs -> {
+            target.put(rs.getLong(1), TextAnalyzer.tokens(rs.getString(2) + "\n" + rs.getString(3)));
+            count[0]++;
+        }, afterId);
+        return count[0];
+    }
+
+    private int indexComments(Index target, long afterId) {
+        int[] count = {0};
+        jdbcTemplate.query(COMMENTS_SQL, rs -> {
+            target.put(rs.getLong(1), TextAnalyzer.tokens(rs.getString(2)));
+            count[0]++;
+        }, afterId);
+        return count[0];
+    }
+
+    private Path snapshotFile() {
+        return snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
+    private static final class Index {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final RebuildJournal<InvertedIndex> journal = new RebuildJournal<>();
+        private InvertedIndex index = new InvertedIndex();
+
+        void put(Long id, List<String> tokens) {
+            int doc = Math.toIntExact(id);
+            write(() -> journal.apply(index, target -> target.put(doc, tokens)));
+        }
+
+        void remove(Long id) {
+            int doc = Math.toIntExact(id);
+            write(() -> journal.apply(index, target -> target.remove(doc)));
+        }
+
+        void openJournal() {
+            write(journal::open);
+        }
+
+        void replace(InvertedIndex fresh) {
+            write(() -> {
+                journal.replay(fresh);
+                index = fresh;
+            });
+        }
+
+        void closeJournal() {
+            write(journal::close);
+        }
+
+        List<InvertedIndex.Hit> search(Query query, int limit) {
+            lock.readLock().lock();
+            try {
+                return index.search(query.terms(), query.phrases(), limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int maxDoc() {
+            lock.readLock().lock();
+            try {
+                return index.maxDoc();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            lock.readLock().lock();
+            try {
+                index.writeTo(out);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void write(Runnable action) {
+            lock.writeLock().lock();
+            try {
+                action.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.UserName;
+import com.folkislove.love.util.AfterCommit;
+import com.folkislove.love.util.RebuildJournal;
+import com.folkislove.love.util.SuggestionIndex;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Подсказки для выбора тега и @-упоминаний. Индексы строятся при старте до приема запросов,
+ * дальше TagService, AuthService и UserService обновляют их после коммита.
+ * Изменения, пришедшие во время построения, проигрываются на новых индексах из журнала;
+ * put/remove идемпотентны, так что попавшее и в чтение, и в журнал не портит индекс.
+ */
+@Slf4j
+@Service
+public class SuggestionService implements SmartInitializingSingleton {
+
+    private final TagRepository tagRepository;
+    private final UserRepository userRepository;
+    private final TagUsageService tagUsageService;
+
+    // писатели (хуки, подмена) по одному, читатели без блокировок
+    private final Object writeLock = new Object();
+    private volatile SuggestionIndex tags = new SuggestionIndex();
+    private volatile SuggestionIndex users = new SuggestionIndex();
+    private final RebuildJournal<SuggestionIndex> tagJournal = new RebuildJournal<>();
+    private final RebuildJournal<SuggestionIndex> userJournal = new RebuildJournal<>();
+
+    public SuggestionService(
+        TagRepository tagRepository,
+        UserRepository userRepository,
+        TagUsageService tagUsageService
+    ) {
+        this.tagRepository = tagRepository;
+        this.userRepository = userRepository;
+        this.tagUsageService = tagUsageService;
+    }
+
+    /**
+     * Теги ранжируются по использованию (посты + события + интересы).
+     */
+    public List<SuggestionIndex.Match> suggestTags(String query, int limit) {
+        return tags.suggest(query, limit, tagId -> tagUsageService.getUsage(tagId).total());
+    }
+
+    public List<SuggestionIndex.Match> suggestUsers(String query, int limit) {
+        return users.suggest(query, limit, userId -> 0);
+    }
+
+    public void tagSaved(Long tagId, String oldName, String newName) {
+        AfterCommit.run(() -> changeTags(index -> {
+            if (oldName != null) {
+                index.remove(tagId, oldName);
+            }
+            index.put(tagId, newName);
+        }));
+    }
+
+    public void tagDeleted(Long tagId, String name) {
+        AfterCommit.run(() -> changeTags(index -> index.remove(tagId, name)));
+    }
+
+    public void userRegistered(Long userId, String username) {
+        AfterCommit.run(() -> changeUsers(index -> index.put(userId, username)));
+    }
+
+    public void userDeleted(Long userId, String username) {
+        AfterCommit.run(() -> changeUsers(index -> index.remove(userId, username)));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        synchronized (writeLock) {
+            tagJournal.open();
+            userJournal.open();
+        }
+        try {
+            Map<Long, String> tagNames = new HashMap<>();
+            tagRepository.findAll().forEach(tag -> tagNames.put(tag.getId(), tag.getName()));
+            SuggestionIndex freshTags = new SuggestionIndex();
+            freshTags.replaceAll(tagNames);
+
+            Map<Long, String> usernames = new HashMap<>();
+            for (UserName user : userRepository.findAllUserNames()) {
+                usernames.put(user.id(), user.username());
+            }
+            SuggestionIndex freshUsers = new SuggestionIndex();
+            freshUsers.replaceAll(usernames);
+
+            synchronized (writeLock) {
+                tagJournal.replay(freshTags);
+                userJournal.replay(freshUsers);
+                tags = freshTags;
+                users = freshUsers;
+            }
+            log.info("Suggestion indexes built for {} tags and {} users", freshTags.size(), freshUsers.size());
+        } finally {
+            synchronized (writeLock) {
+                tagJournal.close();
+                userJournal.close();
+            }
+        }
+    }
+
+    // private helpers
+
+    private void changeTags(Consumer<SuggestionIndex> change) {
+        synchronized (writeLock) {
+            tagJournal.apply(tags, change);
+        }
+    }
+
+    private void changeUsers(Consumer<SuggestionIndex> change) {
+        synchronized (writeLock) {
+            userJournal.apply(users, change);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.exception.custom.InvalidTagQueryException;
+import com.folkislove.love.util.AfterCommit;
+import com.folkislove.love.util.RebuildJournal;
+import com.folkislove.love.util.RoaringBitmap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс тег -> id постов в сжатых битовых картах.
+ *
+ * Запросы "все эти теги", "любой из тегов", "кроме этих" считаются в памяти пересечением
+ * и объединением карт, страница - это id по убыванию (новые сверху), БД получает только
+ * запрос строк страницы по id. Индекс обновляется сервисами после коммита и раз в
+ * tags.index-rebuild-ms перестраивается по таблицам связей (изменения, пришедшие
+ * во время чтения, проигрываются на новом индексе из журнала).
+ *
+ * Только посты: поиск событий по тегам - это запрос EventService.search
+ * (EXISTS по event_tags, см. EventSpecifications), у него и окно дат, и порядок по дате.
+ */
+@Slf4j
+@Service
+public class TagIndexService {
+
+    public static final int MAX_QUERY_TAGS = 20;
+
+    private static final String POSTS_SQL =
+        "select pt.post_id, pt.tag_id from post_tags pt join posts p on p.id = pt.post_id where p.deleted_at is null";
+
+    public enum Mode {
+        ALL, ANY;
+
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidTagQueryException("Unknown tag search mode: " + value + ", expected all or any");
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Index posts = new Index();
+
+    public TagIndexService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void postTagsChanged(Long postId, Collection<Long> before, Collection<Long> after) {
+        AfterCommit.run(() -> posts.update(postId, before, after));
+    }
+
+    /**
+     * Страница id постов (по убыванию) и общее число совпадений.
+     */
+    public Page<Long> searchPosts(Collection<Long> tagIds, Mode mode, Collection<Long> excluded, Pageable pageable) {
+        return posts.search(tagIds, mode, excluded, pageable);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${tags.index-rebuild-ms:300000}", fixedDelayString = "${tags.index-rebuild-ms:300000}")
+    public synchronized void rebuild() {
+        posts.openJournal();
+        try {
+            posts.replace(load(POSTS_SQL));
+        } finally {
+            posts.closeJournal();
+        }
+        log.debug("Tag bitmap index rebuilt");
+    }
+
+    // private helpers
+
+    private Map<Long, RoaringBitmap> load(String sql) {
+        Map<Long, RoaringBitmap> byTag = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            byTag.computeIfAbsent(rs.getLong(2), tagId -> new RoaringBitmap()).add(Math.toIntExact(rs.getLong(1)));
+        });
+        return byTag;
+    }
+
+    private static void validate(Collection<Long> tagIds, Collection<Long> excluded) {
+        if (tagIds == null || tagIds.isEmpty()) {
+            throw new InvalidTagQueryException("At least one tag is required");
+        }
+        if (tagIds.size() + excluded.size() > MAX_QUERY_TAGS) {
+            throw new InvalidTagQueryException("Too many tags in query, max " + MAX_QUERY_TAGS);
+        }
+    }
+
+    private static final class Index {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final RebuildJournal<Map<Long, RoaringBitmap>> journal = new RebuildJournal<>();
+        private Map<Long, RoaringBitmap> byTag = new HashMap<>();
+
+        void update(Long documentId, Collection<Long> before, Collection<Long> after) {
+            int id = Math.toIntExact(documentId);
+            write(() -> journal.apply(byTag, target -> update(target, id, before, after)));
+        }
+
+        void openJournal() {
+            write(journal::open);
+        }
+
+        void replace(Map<Long, RoaringBitmap> fresh) {
+            write(() -> {
+                journal.replay(fresh);
+                byTag = fresh;
+            });
+        }
+
+        void closeJournal() {
+            write(journal::close);
+        }
+
+        Page<Long> search(Collection<Long> tagIds, Mode mode, Collection<Long> excluded, Pageable pageable) {
+            validate(tagIds, excluded);
+
+            RoaringBitmap matches;
+            lock.readLock().lock();
+            try {
+                matches = mode == Mode.ALL ? intersect(tagIds) : union(tagIds);
+                if (!excluded.isEmpty() && !matches.isEmpty()) {
+                    matches = matches.andNot(union(excluded));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            int[] page = matches.pageDescending(pageable.getOffset(), pageable.getPageSize());
+            List<Long> ids = Arrays.stream(page).mapToObj(Long::valueOf).toList();
+            return new PageImpl<>(ids, pageable, matches.cardinality());
+        }
+
+        private RoaringBitmap intersect(Collection<Long> tagIds) {
+            // начинаем с самой маленькой карты - промежуточные результаты не больше нее
+            List<RoaringBitmap> bitmaps = tagIds.stream().distinct().map(this::bitmapOf).sorted(
+                (a, b) -> Long.compare(a.cardinality(), b.cardinality())
+            ).toList();
+            RoaringBitmap result = bitmaps.get(0);
+            for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+                result = result.and(bitmaps.get(i));
+            }
+            // единственную карту копируем: страница читается уже без блокировки
+            return bitmaps.size() == 1 ? result.or(new RoaringBitmap()) : result;
+        }
+
+        private RoaringBitmap union(Collection<Long> tagIds) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Long tagId : tagIds) {
+                result = result.or(bitmapOf(tagId));
+            }
+            return result;
+        }
+
+        private RoaringBitmap bitmapOf(Long tagId) {
+            RoaringBitmap bitmap = byTag.get(tagId);
+            return bitmap == null ? new RoaringBitmap() : bitmap;
+        }
+
+        private void write(Runnable action) {
+            lock.writeLock().lock();
+            try {
+                action.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // повторное применение ничего не меняет - годится для журнала
+        private static void update(Map<Long, RoaringBitmap> byTag, int id, Collection<Long> before, Collection<Long> after) {
+            for (Long tagId : before) {
+                RoaringBitmap bitmap = byTag.get(tagId);
+                if (bitmap != null && !after.contains(tagId)) {
+                    bitmap.remove(id);
+                }
+            }
+            for (Long tagId : after) {
+                byTag.computeIfAbsent(tagId, t -> new RoaringBitmap()).add(id);
+            }
+        }
+    }
+}
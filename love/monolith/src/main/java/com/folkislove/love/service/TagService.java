@@ -8,11 +8,25 @@ import com.folkislove.love.repository.TagRepository;
 
 import lombok.RequiredArgsConstructor;
 
+import com.folkislove.love.util.AfterCommit;
+
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -20,16 +34,104 @@ public class TagService {
 
     private final TagRepository tagRepository;
     private final CurrentUserService currentUserService;
+    private final SuggestionService suggestionService;
+    private final UpcomingEventIndexService upcomingEventIndexService;
+
+    // справочник в памяти, подменяется целиком после каждого изменения
+    private final AtomicReference<TagSnapshot> snapshot = new AtomicReference<>();
 
+    /**
+     * Тег из снимка, без запроса в БД. Промах (тег создан на другом узле
+     * и снимок еще не обновился) проверяется в БД.
+     */
     @Transactional(readOnly = true)
     public Tag getTagById(Long id) {
+        Tag tag = snapshot().tagOf(id);
+        if (tag != null) {
+            return tag;
+        }
         return tagRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag", id));
     }
 
+    /**
+     * Проверяет, что все id существуют, и возвращает теги для связей сущностей.
+     * Промахи снимка добираются одним IN запросом, отсутствующие id
+     * перечисляются в одной ошибке. Множество изменяемое - его можно сразу отдавать в setTags.
+     */
+    @Transactional(readOnly = true)
+    public Set<Tag> getTagsByIds(Collection<Long> ids) {
+        Set<Tag> tags = new HashSet<>();
+        if (ids == null || ids.isEmpty()) {
+            return tags;
+        }
+
+        TagSnapshot current = snapshot();
+        Set<Long> misses = new TreeSet<>();
+        for (Long id : ids) {
+            Tag tag = current.tagOf(id);
+            if (tag != null) {
+                tags.add(tag);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (Tag tag : tagRepository.findAllById(List.copyOf(misses))) {
+                tags.add(tag);
+                misses.remove(tag.getId());
+            }
+            if (!misses.isEmpty()) {
+                throw new ResourceNotFoundException("Tag", misses);
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Теги по id без проверки: удаленные (или неизвестные) id просто пропускаются.
+     * Промахи снимка добираются одним IN запросом.
+     */
     @Transactional(readOnly = true)
+    public Map<Long, Tag> getExistingTags(Collection<Long> ids) {
+        Map<Long, Tag> tags = new HashMap<>();
+        TagSnapshot current = snapshot();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            Tag tag = current.tagOf(id);
+            if (tag != null) {
+                tags.put(id, tag);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            tagRepository.findAllById(misses).forEach(tag -> tags.put(tag.getId(), tag));
+        }
+        return tags;
+    }
+
     public Page<Tag> getAllTags(Pageable pageable) {
-        return tagRepository.findAll(pageable);
+        List<Tag> tags = snapshot().tags();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(tags, pageable, tags.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), tags.size());
+        int to = Math.min(from + pageable.getPageSize(), tags.size());
+        return new PageImpl<>(tags.subList(from, to), pageable, tags.size());
+    }
+
+    /**
+     * ETag текущего снимка: меняется только вместе с содержимым справочника.
+     */
+    public String getTagsVersion() {
+        return snapshot().etag();
+    }
+
+    @Scheduled(fixedDelayString = "${tags.refresh-ms:60000}")
+    public void refresh() {
+        snapshot.set(new TagSnapshot(tagRepository.findAll()));
     }
 
     public Tag createTag(String tagName) {
@@ -45,35 +147,53 @@ public class TagService {
                 .name(normalized)
                 .build();
 
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        suggestionService.tagSaved(saved.getId(), null, saved.getName());
+        AfterCommit.run(this::refresh);
+        return saved;
     }
 
     public Tag renameTag(Long tagId, String newName) {
         currentUserService.checkIsAdmin();
 
-        Tag tag = getTagById(tagId);
+        Tag tag = tagRepository.findById(tagId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tag", tagId));
         String normalizedName = normalize(newName);
 
         if (tagRepository.existsByNameIgnoreCase(normalizedName)) {
             throw new TagAlreadyExistsException(normalizedName);
         }
 
+        suggestionService.tagSaved(tagId, tag.getName(), normalizedName);
+        upcomingEventIndexService.tagRenamed(tagId, normalizedName);
         tag.setName(normalizedName);
+        AfterCommit.run(this::refresh);
         return tag;
     }
 
     public void deleteTag(Long tagId) {
         currentUserService.checkIsAdmin();
 
-        Tag tag = getTagById(tagId);
+        Tag tag = tagRepository.findById(tagId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tag", tagId));
 
-        if (!tag.getPosts().isEmpty() ||
-            !tag.getEvents().isEmpty() ||
-            !tag.getUsers().isEmpty()) {
+        // EXISTS по таблицам связей, без загрузки самих постов/событий/пользователей
+        if (tagRepository.usageExists(tagId) > 0) {
             throw new TagInUseException(tag.getName());
         }
 
         tagRepository.delete(tag);
+        suggestionService.tagDeleted(tagId, tag.getName());
+        AfterCommit.run(this::refresh);
+    }
+
+    private TagSnapshot snapshot() {
+        TagSnapshot current = snapshot.get();
+        if (current == null) {
+            current = new TagSnapshot(tagRepository.findAll());
+            snapshot.compareAndSet(null, current);
+        }
+        return current;
     }
 
     private String normalize(String name) {
@@ -0,0 +1,73 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.Tag;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Неизменяемый снимок справочника тегов. Читается без блокировок,
+ * при изменениях TagService строит новый снимок и подменяет ссылку целиком.
+ */
+final class TagSnapshot {
+
+    static final TagSnapshot EMPTY = new TagSnapshot(List.of());
+
+    private final List<Tag> tags;                  // отсортированы по id, detached
+    private final Map<Long, String> namesById;
+    private final Map<String, Long> idsByLowerName;
+    private final String etag;
+
+    TagSnapshot(Collection<Tag> source) {
+        List<Tag> sorted = source.stream()
+            .map(tag -> Tag.builder().id(tag.getId()).name(tag.getName()).build())
+            .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+            .toList();
+
+        Map<Long, String> names = new HashMap<>();
+        Map<String, Long> ids = new HashMap<>();
+        CRC32 checksum = new CRC32();
+        for (Tag tag : sorted) {
+            names.put(tag.getId(), tag.getName());
+            ids.put(tag.getName().toLowerCase(Locale.ROOT), tag.getId());
+            checksum.update((tag.getId() + ":" + tag.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        this.tags = sorted;
+        this.namesById = Collections.unmodifiableMap(names);
+        this.idsByLowerName = Collections.unmodifiableMap(ids);
+        // из содержимого, а не из счетчика версий - одинаковый на всех узлах
+        this.etag = "\"tags-" + sorted.size() + "-" + Long.toHexString(checksum.getValue()) + "\"";
+    }
+
+    String nameOf(Long id) {
+        return namesById.get(id);
+    }
+
+    Long idOf(String name) {
+        return idsByLowerName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Новый detached экземпляр: вызывающий код может класть его в связи сущностей.
+     */
+    Tag tagOf(Long id) {
+        String name = namesById.get(id);
+        return name == null ? null : Tag.builder().id(id).name(name).build();
+    }
+
+    List<Tag> tags() {
+        return tags;
+    }
+
+    String etag() {
+        return etag;
+    }
+}
@@ -0,0 +1,245 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.util.RebuildJournal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Consumer;
+
+/**
+ * Сколько постов, событий и заинтересованных пользователей у каждого тега.
+ *
+ * Счетчики живут только в памяти: сервисы сообщают о привязке/отвязке тегов после коммита,
+ * а раз в tags.usage-reconcile-ms счетчики пересчитываются GROUP BY по таблицам связей
+ * (правки в обход сервисов, например удаление пользователя, исправляются там же).
+ * Изменения, пришедшие во время пересчета, проигрываются на новых счетчиках из журнала.
+ *
+ * Чтобы изменение не попало и в снимок, и в журнал, транзакции с изменениями держат
+ * commitGate на чтение от beforeCommit до применения дельты. Пересчет берет его на запись
+ * только пока открывает журнал и фиксирует снимок первым чтением в REPEATABLE READ
+ * транзакции: все закоммиченное раньше уже применено к старым счетчикам и есть в снимке,
+ * все закоммиченное позже не видно снимку и попадает в журнал.
+ *
+ * Точная проверка "тег используется" делается отдельным EXISTS запросом.
+ */
+@Slf4j
+@Service
+public class TagUsageService {
+
+    // одним запросом: все счетчики из одного снимка БД
+    private static final String COUNTS_SQL = """
+        select 'p', pt.tag_id, count(*) from post_tags pt join posts p on p.id = pt.post_id
+        where p.deleted_at is null group by pt.tag_id
+        union all
+        select 'e', tag_id, count(*) from event_tags group by tag_id
+        union all
+        select 'u', tag_id, count(*) from user_tags group by tag_id
+        """;
+
+    // первое чтение фиксирует снимок REPEATABLE READ транзакции, дальше COUNTS_SQL читает из него
+    private static final String SNAPSHOT_SQL = "select count(*) from tags";
+
+    /**
+     * Снимок счетчиков одного тега.
+     */
+    public record Usage(Long tagId, long posts, long events, long users) {
+
+        public long total() {
+            return posts + events + users;
+        }
+    }
+
+    private static final class Counters {
+        private final AtomicLong posts = new AtomicLong();
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong users = new AtomicLong();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+    // писатели (хуки, подмена) по одному, читатели без блокировок
+    private final Object writeLock = new Object();
+    private volatile ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+    private final RebuildJournal<ConcurrentHashMap<Long, Counters>> journal = new RebuildJournal<>();
+
+    public TagUsageService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Теги поста до и после изменения (пустой before - создание, пустой after - удаление).
+     */
+    public void postTagsChanged(Collection<Long> before, Collection<Long> after) {
+        applyDiff(before, after, c -> c.posts);
+    }
+
+    public void eventTagsChanged(Collection<Long> before, Collection<Long> after) {
+        applyDiff(before, after, c -> c.events);
+    }
+
+    public void interestAdded(Long tagId) {
+        onCommit(target -> counters(target, tagId).users.incrementAndGet());
+    }
+
+    public void interestRemoved(Long tagId) {
+        onCommit(target -> counters(target, tagId).users.decrementAndGet());
+    }
+
+    public Usage getUsage(Long tagId) {
+        Counters c = counters.get(tagId);
+        return c == null ? new Usage(tagId, 0, 0, 0) : usage(tagId, c);
+    }
+
+    /**
+     * Самые используемые теги, по убыванию суммы счетчиков.
+     */
+    public List<Usage> getMostUsed(int limit) {
+        return counters.entrySet().stream()
+            .map(e -> usage(e.getKey(), e.getValue()))
+            .filter(u -> u.total() > 0)
+            .sorted(Comparator.comparingLong(Usage::total).reversed().thenComparing(Usage::tagId))
+            .limit(limit)
+            .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${tags.usage-reconcile-ms:300000}", fixedDelayString = "${tags.usage-reconcile-ms:300000}")
+    public synchronized void reconcile() {
+        try {
+            ConcurrentHashMap<Long, Counters> fresh = snapshotTemplate.execute(status -> {
+                commitGate.writeLock().lock();
+                try {
+                    synchronized (writeLock) {
+                        journal.open();
+                    }
+                    jdbcTemplate.queryForObject(SNAPSHOT_SQL, Long.class);
+                } finally {
+                    commitGate.writeLock().unlock();
+                }
+                return load();
+            });
+            synchronized (writeLock) {
+                journal.replay(fresh);
+                counters = fresh;
+            }
+            log.debug("Reconciled usage counters for {} tags", fresh.size());
+        } finally {
+            synchronized (writeLock) {
+                journal.close();
+            }
+        }
+    }
+
+    static Set<Long> idsOf(Collection<Tag> tags) {
+        Set<Long> ids = new HashSet<>();
+        tags.forEach(tag -> ids.add(tag.getId()));
+        return ids;
+    }
+
+    // private helpers
+
+    private void applyDiff(Collection<Long> before, Collection<Long> after, Function<Counters, AtomicLong> counter) {
+        Set<Long> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        Set<Long> added = new HashSet<>(after);
+        added.removeAll(before);
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        onCommit(target -> {
+            removed.forEach(tagId -> counter.apply(counters(target, tagId)).decrementAndGet());
+            added.forEach(tagId -> counter.apply(counters(target, tagId)).incrementAndGet());
+        });
+    }
+
+    /**
+     * Как AfterCommit, но коммит и применение дельты идут под commitGate (см. javadoc класса).
+     */
+    private void onCommit(Consumer<ConcurrentHashMap<Long, Counters>> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitGate.readLock().lock();
+            try {
+                change(change);
+            } finally {
+                commitGate.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean gated;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitGate.readLock().lock();
+                gated = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        change(change);
+                    }
+                } finally {
+                    if (gated) {
+                        commitGate.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private void change(Consumer<ConcurrentHashMap<Long, Counters>> change) {
+        synchronized (writeLock) {
+            journal.apply(counters, change);
+        }
+    }
+
+    private static Counters counters(ConcurrentHashMap<Long, Counters> target, Long tagId) {
+        return target.computeIfAbsent(tagId, id -> new Counters());
+    }
+
+    private static Usage usage(Long tagId, Counters c) {
+        return new Usage(tagId, Math.max(0, c.posts.get()), Math.max(0, c.events.get()), Math.max(0, c.users.get()));
+    }
+
+    private ConcurrentHashMap<Long, Counters> load() {
+        ConcurrentHashMap<Long, Counters> fresh = new ConcurrentHashMap<>();
+        jdbcTemplate.query(COUNTS_SQL, rs -> {
+            Counters c = counters(fresh, rs.getLong(2));
+            AtomicLong counter = switch (rs.getString(1)) {
+                case "p" -> c.posts;
+                case "e" -> c.events;
+                default -> c.users;
+            };
+            counter.set(rs.getLong(3));
+        });
+        return fresh;
+    }
+}
@@ -0,0 +1,216 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.Followee;
+import com.folkislove.love.util.AfterCommit;
+import com.folkislove.love.util.IdRingBuffer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Домашние ленты подписок (fan-out on write).
+ *
+ * У каждого читающего ленту пользователя в памяти кольцевой буфер последних id постов
+ * авторов, на которых он подписан. Новый пост после коммита раздается фоном в буферы
+ * подписчиков, у которых лента сейчас в памяти. Посты авторов, у которых подписчиков
+ * не меньше timeline.celebrity-followers, не раздаются - их ленты дочитывают из БД
+ * одним запросом (pull). Если автор пересек порог, ленты, собранные по старому решению,
+ * пересобираются при следующем чтении. Буфер строится при первом чтении, перестраивается раз в
+ * timeline.reload-ms и выбрасывается, если ленту не читали timeline.idle-eviction-ms.
+ */
+@Slf4j
+@Service
+public class TimelineService implements AutoCloseable {
+
+    /**
+     * Id постов из памяти (по убыванию) и что дочитать из БД: авторов с раздачей -
+     * только ниже horizon (0 - нечего), авторов без раздачи - всегда.
+     */
+    public record Window(List<Long> ids, long horizon, List<Long> pushAuthorIds, List<Long> pullAuthorIds) {
+    }
+
+    private static final class Timeline {
+        private final IdRingBuffer posts;
+        private volatile List<Long> pushAuthorIds = List.of();
+        private volatile List<Long> pullAuthorIds = List.of();
+        // 0 - собрать заново при следующем чтении; сбрасывается и без монитора
+        private volatile long loadedAt;
+        private volatile long lastReadAt;
+
+        Timeline(int capacity) {
+            this.posts = new IdRingBuffer(capacity);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final int capacity;
+    private final int celebrityFollowers;
+    private final long reloadMs;
+    private final long idleEvictionMs;
+    private final ExecutorService fanOut;
+    private final ConcurrentHashMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    // авторы, которых сейчас дочитывают из БД: общее решение для раздачи и сборки лент
+    private final Set<Long> pullAuthors = ConcurrentHashMap.newKeySet();
+
+    public TimelineService(
+        UserRepository userRepository,
+        PostRepository postRepository,
+        @Value("${timeline.capacity:500}") int capacity,
+        @Value("${timeline.celebrity-followers:10000}") int celebrityFollowers,
+        @Value("${timeline.reload-ms:600000}") long reloadMs,
+        @Value("${timeline.idle-eviction-ms:3600000}") long idleEvictionMs,
+        @Value("${timeline.fan-out-async:true}") boolean async
+    ) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.capacity = capacity;
+        this.celebrityFollowers = celebrityFollowers;
+        this.reloadMs = reloadMs;
+        this.idleEvictionMs = idleEvictionMs;
+        this.fanOut = async ? Executors.newSingleThreadExecutor(Thread.ofPlatform().name("timeline-fan-out").daemon().factory()) : null;
+    }
+
+    public void postCreated(Long authorId, Long postId) {
+        AfterCommit.run(() -> dispatch(authorId, timeline -> timeline.posts.add(postId)));
+    }
+
+    public void postDeleted(Long authorId, Long postId) {
+        AfterCommit.run(() -> dispatch(authorId, timeline -> timeline.posts.remove(postId)));
+    }
+
+    /**
+     * Подписки пользователя изменились: лента соберется заново при следующем чтении.
+     */
+    public void followingChanged(Long userId) {
+        AfterCommit.run(() -> timelines.remove(userId));
+    }
+
+    public Window window(Long userId, long before, int limit) {
+        Timeline timeline = timelines.computeIfAbsent(userId, id -> new Timeline(capacity));
+        long now = System.currentTimeMillis();
+        timeline.lastReadAt = now;
+
+        synchronized (timeline) {
+            if (now - timeline.loadedAt >= reloadMs) {
+                // до загрузки: сброс, пришедший во время нее, не затрется
+                timeline.loadedAt = now;
+                try {
+                    load(userId, timeline);
+                } catch (RuntimeException e) {
+                    timeline.loadedAt = 0;
+                    throw e;
+                }
+            }
+            return new Window(
+                timeline.posts.below(before, limit),
+                timeline.posts.horizon(),
+                timeline.pushAuthorIds,
+                timeline.pullAuthorIds
+            );
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${timeline.idle-eviction-ms:3600000}")
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - idleEvictionMs;
+        timelines.values().removeIf(timeline -> timeline.lastReadAt < threshold);
+    }
+
+    @Override
+    public void close() {
+        if (fanOut != null) {
+            fanOut.shutdown();
+        }
+    }
+
+    // private helpers
+
+    private void dispatch(Long authorId, Consumer<Timeline> update) {
+        Runnable task = () -> deliver(authorId, update);
+        if (fanOut == null) {
+            task.run();
+            return;
+        }
+        try {
+            fanOut.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Timeline fan-out rejected, author {}", authorId);
+        }
+    }
+
+    private void deliver(Long authorId, Consumer<Timeline> update) {
+        if (timelines.isEmpty()) {
+            return;
+        }
+        List<Long> followers = userRepository.findFollowerIds(authorId, celebrityFollowers);
+        boolean pull = followers.size() >= celebrityFollowers;
+        classify(authorId, pull);
+        if (pull) {
+            return;  // подписчики дочитывают такого автора из БД
+        }
+        for (Long followerId : followers) {
+            Timeline timeline = timelines.get(followerId);
+            if (timeline != null) {
+                synchronized (timeline) {
+                    update.accept(timeline);
+                }
+            }
+        }
+    }
+
+    // вызывается под монитором timeline: раздача в эту ленту ждет окончания загрузки
+    private void load(Long userId, Timeline timeline) {
+        List<Long> push = new ArrayList<>();
+        List<Long> pull = new ArrayList<>();
+        for (Followee followee : userRepository.findFollowees(userId)) {
+            (followee.followers() >= celebrityFollowers ? pull : push).add(followee.id());
+        }
+
+        timeline.posts.clear();
+        if (!push.isEmpty()) {
+            // на один больше емкости: последний уйдет в horizon, если постов больше
+            postRepository.findIdsByAuthorIdIn(push, Limit.of(capacity + 1)).forEach(timeline.posts::add);
+        }
+        timeline.pushAuthorIds = List.copyOf(push);
+        timeline.pullAuthorIds = List.copyOf(pull);
+
+        // после присваивания: сама собираемая лента уже по новому решению
+        push.forEach(authorId -> classify(authorId, false));
+        pull.forEach(authorId -> classify(authorId, true));
+    }
+
+    /**
+     * Запоминает решение push/pull по автору. Если оно изменилось, ленты, где автор
+     * числится по-старому, помечаются к пересборке: иначе его посты пропадут
+     * (раздачи нет, а из БД не дочитываются) или задвоятся. Мониторы лент не берет -
+     * вызывается и из load под монитором другой ленты.
+     */
+    private void classify(Long authorId, boolean pull) {
+        boolean changed = pull ? pullAuthors.add(authorId) : pullAuthors.remove(authorId);
+        if (!changed) {
+            return;
+        }
+        for (Timeline timeline : timelines.values()) {
+            List<Long> stale = pull ? timeline.pushAuthorIds : timeline.pullAuthorIds;
+            if (stale.contains(authorId)) {
+                timeline.loadedAt = 0;
+            }
+        }
+    }
+}
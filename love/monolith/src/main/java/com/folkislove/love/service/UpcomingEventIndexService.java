@@ -0,0 +1,317 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.exception.custom.InvalidPageOffsetException;
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.repository.projection.EventSummary;
+import com.folkislove.love.util.AfterCommit;
+import com.folkislove.love.util.PageCursor;
+import com.folkislove.love.util.RebuildJournal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Предстоящие события в памяти, ближайшие первыми.
+ *
+ * Строки событий лежат в ConcurrentSkipListMap по ключу (dateTime, id), для каждого тега -
+ * ConcurrentSkipListSet тех же ключей. Страницы /upcoming (всех и по тегу) читаются
+ * по порядку от текущего момента или от курсора, без блокировок и без БД. Сервисы
+ * обновляют индекс после коммита, прошедшие события вычищаются раз в events.upcoming.prune-ms,
+ * а раз в events.upcoming.rebuild-ms индекс перечитывается из БД (изменения с других узлов).
+ *
+ * Размеры множеств (всего и по тегу) ведутся счетчиками при записи: size() у skip list
+ * обходит его целиком. Смещение offset страниц ограничено events.upcoming.max-offset,
+ * глубже - курсором (upcomingAfter), который начинает с нужного ключа сразу.
+ */
+@Slf4j
+@Service
+public class UpcomingEventIndexService {
+
+    private static final String EVENTS_SQL = """
+        select e.id, e.title, e.description, e.date_time, e.city, e.country, e.venue, e.link,
+               u.username, e.created_at
+        from events e join users u on u.id = e.author_id
+        where e.date_time > ?
+        """;
+    private static final String TAGS_SQL = """
+        select et.event_id, t.id, t.name
+        from event_tags et
+        join events e on e.id = et.event_id
+        join tags t on t.id = et.tag_id
+        where e.date_time > ?
+        """;
+
+    record Key(LocalDateTime dateTime, long id) implements Comparable<Key> {
+
+        // сразу за всеми событиями, которые начинаются не позже dateTime
+        static Key after(LocalDateTime dateTime) {
+            return new Key(dateTime, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = dateTime.compareTo(other.dateTime);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+
+    // строка уже с именами тегов; tags - id -> имя для переименований
+    private record Entry(EventSummary summary, Map<Long, String> tags) {
+
+        static Entry of(EventSummary summary, Map<Long, String> tags) {
+            return new Entry(summary.withTags(List.copyOf(tags.values())), tags);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxOffset;
+    // писатели (хуки, чистка, подмена) по одному, читатели без блокировок
+    private final Object writeLock = new Object();
+    private volatile Index index = new Index();
+    private final RebuildJournal<Index> journal = new RebuildJournal<>();
+
+    public UpcomingEventIndexService(
+        JdbcTemplate jdbcTemplate,
+        @Value("${events.upcoming.max-offset:1000}") long maxOffset
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxOffset = maxOffset;
+    }
+
+    // изменения от сервисов, после коммита; строка снимается с сущности сразу
+
+    public void eventSaved(Event event) {
+        Map<Long, String> tags = new LinkedHashMap<>();
+        for (Tag tag : event.getTags()) {
+            tags.put(tag.getId(), tag.getName());
+        }
+        Entry entry = Entry.of(new EventSummary(event.getId(), event.getTitle(), event.getDescription(),
+            event.getDateTime(), event.getCity(), event.getCountry(), event.getVenue(), event.getLink(),
+            event.getAuthor().getUsername(), event.getCreatedAt()), tags);
+
+        AfterCommit.run(() -> change(current -> current.put(entry)));
+    }
+
+    public void eventDeleted(Long eventId) {
+        AfterCommit.run(() -> change(current -> current.remove(eventId)));
+    }
+
+    public void tagRenamed(Long tagId, String name) {
+        AfterCommit.run(() -> change(current -> current.rename(tagId, name)));
+    }
+
+    /**
+     * Страница предстоящих событий (тега, если tagId не null). Total берется из счетчика
+     * и до следующей чистки может включать уже начавшиеся события; на последней странице
+     * он точный - дошли до конца множества.
+     */
+    public Page<EventSummary> upcoming(Long tagId, Pageable pageable) {
+        if (pageable.getOffset() > maxOffset) {
+            throw new InvalidPageOffsetException(maxOffset);
+        }
+        Index current = index;
+        Key now = Key.after(LocalDateTime.now());
+        NavigableSet<Key> keys = tagId == null ? current.events.navigableKeySet() : current.byTag.get(tagId);
+        if (keys == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        long size = tagId == null ? current.size.get() : current.tagSize(tagId);
+
+        List<EventSummary> content = new ArrayList<>(pageable.getPageSize());
+        Iterator<Key> iterator = keys.tailSet(now, false).iterator();
+        long skipped = 0;
+        while (skipped < pageable.getOffset() && iterator.hasNext()) {
+            iterator.next();
+            skipped++;
+        }
+        collect(current, iterator, pageable.getPageSize(), content);
+
+        long total = iterator.hasNext() ? Math.max(size, skipped + content.size() + 1) : skipped + content.size();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * До limit предстоящих событий после курсора (с начала, если cursor == null).
+     */
+    public List<EventSummary> upcomingAfter(PageCursor cursor, int limit) {
+        Index current = index;
+        Key from = Key.after(LocalDateTime.now());
+        if (cursor != null) {
+            Key position = new Key(cursor.key(), cursor.id());
+            if (position.compareTo(from) > 0) {
+                from = position;
+            }
+        }
+
+        List<EventSummary> rows = new ArrayList<>(limit);
+        collect(current, current.events.navigableKeySet().tailSet(from, false).iterator(), limit, rows);
+        return rows;
+    }
+
+    @Scheduled(fixedDelayString = "${events.upcoming.prune-ms:60000}")
+    public void prune() {
+        Key now = Key.after(LocalDateTime.now());
+        synchronized (writeLock) {
+            Index current = index;
+            List<Key> passed = List.copyOf(current.events.headMap(now, true).keySet());
+            passed.forEach(key -> current.remove(key.id()));
+            if (!passed.isEmpty()) {
+                log.debug("Pruned {} passed events from upcoming index", passed.size());
+            }
+        }
+    }
+
+    /**
+     * Полная перестройка из БД. Индекс строится рядом и подменяется целиком, изменения,
+     * пришедшие во время чтения, проигрываются на нем из журнала. Перестройки не пересекаются.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${events.upcoming.rebuild-ms:600000}",
+        fixedDelayString = "${events.upcoming.rebuild-ms:600000}")
+    public synchronized void rebuild() {
+        synchronized (writeLock) {
+            journal.open();
+        }
+        try {
+            Index fresh = load();
+            int count = fresh.keys.size();
+            synchronized (writeLock) {
+                journal.replay(fresh);
+                index = fresh;
+            }
+            log.debug("Upcoming event index rebuilt: {} events", count);
+        } finally {
+            synchronized (writeLock) {
+                journal.close();
+            }
+        }
+    }
+
+    // private helpers
+
+    private void change(Consumer<Index> change) {
+        synchronized (writeLock) {
+            journal.apply(index, change);
+        }
+    }
+
+    private Index load() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, Map<Long, String>> tagsByEvent = new HashMap<>();
+        jdbcTemplate.query(TAGS_SQL, rs -> {
+            tagsByEvent.computeIfAbsent(rs.getLong(1), id -> new LinkedHashMap<>()).put(rs.getLong(2), rs.getString(3));
+        }, now);
+
+        Index fresh = new Index();
+        jdbcTemplate.query(EVENTS_SQL, rs -> {
+            EventSummary summary = new EventSummary(rs.getLong(1), rs.getString(2), rs.getString(3),
+                rs.getObject(4, LocalDateTime.class), rs.getString(5), rs.getString(6), rs.getString(7),
+                rs.getString(8), rs.getString(9), rs.getObject(10, LocalDateTime.class));
+            fresh.put(Entry.of(summary, tagsByEvent.getOrDefault(summary.id(), Map.of())));
+        }, now);
+        return fresh;
+    }
+
+    // ключ без строки - событие удалено между чтением множества тега и строки
+    private static void collect(Index index, Iterator<Key> keys, int limit, List<EventSummary> target) {
+        while (target.size() < limit && keys.hasNext()) {
+            Entry entry = index.events.get(keys.next());
+            if (entry != null) {
+                target.add(entry.summary());
+            }
+        }
+    }
+
+    /**
+     * Порядок записи: строка, затем ключи тегов; удаление в обратном порядке.
+     * Вызывается под writeLock или до публикации.
+     */
+    private static final class Index {
+
+        private final ConcurrentSkipListMap<Key, Entry> events = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, ConcurrentSkipListSet<Key>> byTag = new ConcurrentHashMap<>();
+        private final Map<Long, Key> keys = new HashMap<>();
+        // счетчики для чтения без блокировок; меняются вместе с множествами
+        private final AtomicLong size = new AtomicLong();
+        private final ConcurrentHashMap<Long, AtomicLong> tagSizes = new ConcurrentHashMap<>();
+
+        long tagSize(Long tagId) {
+            AtomicLong tagged = tagSizes.get(tagId);
+            return tagged == null ? 0 : tagged.get();
+        }
+
+        void put(Entry entry) {
+            EventSummary summary = entry.summary();
+            remove(summary.id());
+            if (!summary.dateTime().isAfter(LocalDateTime.now())) {
+                return;  // перенесено в прошлое
+            }
+            Key key = new Key(summary.dateTime(), summary.id());
+            events.put(key, entry);
+            keys.put(summary.id(), key);
+            size.incrementAndGet();
+            for (Long tagId : entry.tags().keySet()) {
+                tagSizes.computeIfAbsent(tagId, id -> new AtomicLong()).incrementAndGet();
+                byTag.computeIfAbsent(tagId, id -> new ConcurrentSkipListSet<>()).add(key);
+            }
+        }
+
+        void remove(Long eventId) {
+            Key key = keys.remove(eventId);
+            if (key == null) {
+                return;
+            }
+            Entry entry = events.get(key);
+            if (entry != null) {
+                for (Long tagId : entry.tags().keySet()) {
+                    byTag.computeIfPresent(tagId, (id, tagged) -> {
+                        tagged.remove(key);
+                        return tagged.isEmpty() ? null : tagged;
+                    });
+                    tagSizes.computeIfPresent(tagId, (id, tagged) -> tagged.decrementAndGet() == 0 ? null : tagged);
+                }
+            }
+            events.remove(key);
+            size.decrementAndGet();
+        }
+
+        void rename(Long tagId, String name) {
+            NavigableSet<Key> tagged = byTag.get(tagId);
+            if (tagged == null) {
+                return;
+            }
+            for (Key key : tagged) {
+                events.computeIfPresent(key, (k, entry) -> {
+                    Map<Long, String> tags = new LinkedHashMap<>(entry.tags());
+                    tags.put(tagId, name);
+                    return Entry.of(entry.summary(), tags);
+                });
+            }
+        }
+    }
+}
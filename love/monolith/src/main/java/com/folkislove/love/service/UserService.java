@@ -1,9 +1,12 @@
 package com.folkislove.love.service;
 
+import com.folkislove.love.exception.custom.InvalidFollowException;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.model.User;
 import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.security.TokenRevocationRegistry;
+import com.folkislove.love.util.AfterCommit;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -15,28 +18,39 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final TagService tagService;
+    private final TagUsageService tagUsageService;
     private final CurrentUserService currentUserService;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final SuggestionService suggestionService;
+    private final TimelineService timelineService;
 
     @Transactional(readOnly = true)
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return userRepository.findWithInterestsByUsername(username)
             .orElseThrow(() -> new ResourceNotFoundException("User", username));
     }
 
+    @Transactional(readOnly = true)
+    public User getCurrentUserProfile() {
+        return getUserByUsername(currentUserService.getCurrentUsername());
+    }
+
     @Transactional
     public void addInterest(Long tagId) {
-        User user = currentUserService.getCurrentUser();
+        User user = getCurrentUserProfile();
         Tag tag = tagService.getTagById(tagId);
-        user.getInterests().add(tag);
-        userRepository.save(user);
+        if (user.getInterests().add(tag)) {
+            tagUsageService.interestAdded(tagId);
+        }
     }
 
     @Transactional
     public void removeInterest(Long tagId) {
-        User user = currentUserService.getCurrentUser();
+        User user = getCurrentUserProfile();
         Tag tag = tagService.getTagById(tagId);
-        user.getInterests().remove(tag);
-        userRepository.save(user);
+        if (user.getInterests().remove(tag)) {
+            tagUsageService.interestRemoved(tagId);
+        }
     }
     
     @Transactional
@@ -44,6 +58,44 @@ public class UserService {
         currentUserService.checkIsAdmin();
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+        userRepository.deleteFollowLinks(userId);
         userRepository.delete(user);
+        String username = user.getUsername();
+        // до коммита удаление могут откатить, а отозванные токены уже не вернуть
+        AfterCommit.run(() -> revocationRegistry.revokeAll(username));
+        suggestionService.userDeleted(userId, user.getUsername());
+        timelineService.followingChanged(userId);
+    }
+
+    /**
+     * Подписка на автора; повторная подписка ничего не меняет.
+     */
+    @Transactional
+    public void follow(String username) {
+        Long followerId = currentUserService.getCurrentUserId();
+        Long followeeId = followeeId(followerId, username);
+        if (userRepository.followExists(followerId, followeeId) == 0) {
+            userRepository.insertFollow(followerId, followeeId);
+            timelineService.followingChanged(followerId);
+        }
+    }
+
+    @Transactional
+    public void unfollow(String username) {
+        Long followerId = currentUserService.getCurrentUserId();
+        if (userRepository.deleteFollow(followerId, followeeId(followerId, username)) > 0) {
+            timelineService.followingChanged(followerId);
+        }
+    }
+
+    // private helpers
+
+    private Long followeeId(Long followerId, String username) {
+        User followee = userRepository.findByUsername(username)
+            .orElseThrow(() -> new ResourceNotFoundException("User", username));
+        if (followee.getId().equals(followerId)) {
+            throw new InvalidFollowException("You cannot follow yourself");
+        }
+        return followee.getId();
     }
 }
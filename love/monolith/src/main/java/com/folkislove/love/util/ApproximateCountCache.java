@@ -0,0 +1,50 @@
+package com.folkislove.love.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш COUNT(*) для offset пагинации: total в ответе может отставать на ttl,
+ * зато листание страниц не гоняет подсчет каждый раз. ttl = 0 - всегда точный count.
+ */
+@Component
+public class ApproximateCountCache {
+
+    private static final int MAX_KEYS = 10_000;
+
+    private record Entry(long count, long expiresAt) {
+    }
+
+    private final long ttlMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ApproximateCountCache(@Value("${pagination.count-cache-ttl-ms:30000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public long get(String key, LongSupplier counter) {
+        if (ttlMs <= 0) {
+            return counter.getAsLong();
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.count();
+        }
+
+        long count = counter.getAsLong();
+        if (entries.size() >= MAX_KEYS) {
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+            if (entries.size() >= MAX_KEYS) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(count, now + ttlMs));
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+package com.folkislove.love.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource, который меряет, сколько соединение было занято (от getConnection до close),
+ * и пишет это в db.connection.hold с тегом endpoint - шаблоном URL обработчика.
+ * Соединения вне HTTP запросов (планировщик, старт) попадают в endpoint=background.
+ */
+public class ConnectionHoldTimer extends DelegatingDataSource {
+
+    private static final String METRIC = "db.connection.hold";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    public ConnectionHoldTimer(DataSource target, Supplier<MeterRegistry> meterRegistry) {
+        super(target);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    // private helpers
+
+    private Connection timed(Connection connection) {
+        String endpoint = currentEndpoint();
+        long start = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                record(endpoint, System.nanoTime() - start);
+            }
+            if ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName())) {
+                if (args[0] instanceof Class<?> type && type.isInstance(proxy)) {
+                    return "unwrap".equals(method.getName()) ? proxy : true;
+                }
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionHoldTimer.class.getClassLoader(), new Class<?>[] { Connection.class }, handler
+        );
+    }
+
+    private void record(String endpoint, long nanos) {
+        MeterRegistry registry = meterRegistry.get();
+        if (registry == null) {
+            return;
+        }
+        Timer.builder(METRIC)
+            .tag("endpoint", endpoint)
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "background";
+        }
+        Object pattern = attributes.getAttribute(
+            HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST
+        );
+        return pattern == null ? "unmapped" : pattern.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.folkislove.love.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивный лимит одновременных запросов в духе gradient/Vegas.
+ *
+ * Держим две оценки задержки: долгую (медленное скользящее среднее, "нормальная" задержка)
+ * и текущую. Пока текущая не хуже долгой с учетом tolerance - лимит растет на sqrt(limit),
+ * как только запросы начинают стоять в очереди (в БД, в пуле соединений) - лимит
+ * уменьшается пропорционально градиенту long / short. Все, что сверх лимита, отбрасывается сразу.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int longWindow;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    private volatile double limit;
+    private double longRttNanos;  // под sampleLock
+    private long samples;         // под sampleLock
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double tolerance, double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * @return true, если запрос можно пропустить; тогда обязателен вызов {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos сколько выполнялся запрос
+     * @param inflightAtStart сколько запросов выполнялось, когда этот начался
+     */
+    public void release(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+
+        // на горячем пути не ждем: если кто-то уже обновляет лимит, этот замер пропускаем
+        if (!sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            onSample(rttNanos, inflightAtStart);
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    // private helpers
+
+    private void onSample(long rttNanos, int inflightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        samples++;
+        if (samples == 1) {
+            longRttNanos = rttNanos;
+        } else {
+            double factor = 1.0 / Math.min(samples, longWindow);
+            longRttNanos = longRttNanos * (1 - factor) + rttNanos * factor;
+        }
+
+        // после всплеска долгая оценка сползает вниз быстрее, чтобы не держать лимит завышенным
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+
+        // приложение не загружено - поводов менять лимит нет
+        if (inflightAtStart < current / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(tolerance * longRttNanos / rttNanos, MIN_GRADIENT, 1.0);
+        double queueSize = Math.sqrt(current);
+        double target = current * gradient + queueSize;
+        double next = current * (1 - smoothing) + target * smoothing;
+
+        limit = Math.clamp(next, minLimit, maxLimit);
+    }
+}
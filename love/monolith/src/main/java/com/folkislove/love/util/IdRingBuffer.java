@@ -0,0 +1,119 @@
+package com.folkislove.love.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ограниченный кольцевой буфер id по убыванию (новые первыми).
+ *
+ * Новый id почти всегда больше всех остальных и встает в голову за O(1), вытесняя самый
+ * старый. Horizon - самый новый из вытесненных id: всё новее него буфер хранит полностью.
+ * Не потокобезопасен: изменения и чтения синхронизирует владелец.
+ */
+public final class IdRingBuffer {
+
+    private final long[] ids;
+    private int head;
+    private int size;
+    private long horizon;
+
+    public IdRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must not be less than one");
+        }
+        this.ids = new long[capacity];
+    }
+
+    /**
+     * @return false, если id уже есть или он старше всего, что помещается в буфер
+     */
+    public boolean add(long id) {
+        int at = firstBelow(id);
+        if (at > 0 && get(at - 1) == id) {
+            return false;
+        }
+        if (id <= horizon || at == ids.length) {
+            horizon = Math.max(horizon, id);
+            return false;
+        }
+        if (size == ids.length) {
+            horizon = Math.max(horizon, get(size - 1));
+            size--;
+        }
+        if (at == 0) {
+            head = Math.floorMod(head - 1, ids.length);
+            ids[head] = id;
+        } else {
+            for (int i = size; i > at; i--) {
+                set(i, get(i - 1));
+            }
+            set(at, id);
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(long id) {
+        int at = firstBelow(id) - 1;
+        if (at < 0 || get(at) != id) {
+            return false;
+        }
+        for (int i = at; i < size - 1; i++) {
+            set(i, get(i + 1));
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Не больше limit id меньше before, по убыванию: O(log n + limit).
+     */
+    public List<Long> below(long before, int limit) {
+        int from = firstBelow(before);
+        int to = Math.min(size, from + limit);
+        List<Long> page = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            page.add(get(i));
+        }
+        return page;
+    }
+
+    public long horizon() {
+        return horizon;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        horizon = 0;
+    }
+
+    // private helpers
+
+    private long get(int index) {
+        return ids[(head + index) % ids.length];
+    }
+
+    private void set(int index, long value) {
+        ids[(head + index) % ids.length] = value;
+    }
+
+    // позиция первого id меньше value
+    private int firstBelow(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid) >= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,578 @@
+package com.folkislove.love.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Инвертированный индекс с позициями и ранжированием BM25.
+ *
+ * На терм - постинг: id документов по возрастанию и позиции терма в каждом из них,
+ * все в плоских int массивах. Новые документы (id больше всех) дописываются в конец,
+ * правка и удаление сдвигают массивы. Запрос считается документ за документом по
+ * постингам своих термов (MaxScore): документы, которые по верхней оценке уже не войдут
+ * в top-k, не досчитываются. Для блоков по 128 документов постинга хранятся наибольший tf
+ * и наименьшая длина документа - блоки частого терма, не способные побить top-k, пропускаются
+ * целиком, поэтому частые термы не замедляют запрос пропорционально длине постинга.
+ *
+ * Не потокобезопасен: изменения и чтения синхронизирует владелец.
+ */
+public final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int BLOCK = 128;
+
+    public record Hit(int doc, float score) {
+    }
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+
+    // по id документа: длина в термах (0 - документа нет) и его различные термы
+    private int[] lengths = new int[16];
+    private int[][] docTerms = new int[16][];
+    private int documents;
+    private long totalLength;
+
+    /**
+     * Добавляет или заменяет документ. Пустой список термов - то же, что удаление.
+     */
+    public void put(int doc, List<String> tokens) {
+        if (doc < 0) {
+            throw new IllegalArgumentException("Negative document id: " + doc);
+        }
+        remove(doc);
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<Integer>> positions = new LinkedHashMap<>();
+        for (int position = 0; position < tokens.size(); position++) {
+            positions.computeIfAbsent(termId(tokens.get(position)), t -> new ArrayList<>()).add(position);
+        }
+
+        // длина нужна постингам для границ блоков
+        ensureCapacity(doc);
+        lengths[doc] = tokens.size();
+
+        int[] distinct = new int[positions.size()];
+        int i = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : positions.entrySet()) {
+            distinct[i++] = entry.getKey();
+            postings.get(entry.getKey()).insert(doc, entry.getValue().stream().mapToInt(Integer::intValue).toArray(), lengths);
+        }
+        docTerms[doc] = distinct;
+        documents++;
+        totalLength += tokens.size();
+    }
+
+    public boolean remove(int doc) {
+        if (!contains(doc)) {
+            return false;
+        }
+        for (int termId : docTerms[doc]) {
+            postings.get(termId).remove(doc, lengths);
+        }
+        documents--;
+        totalLength -= lengths[doc];
+        lengths[doc] = 0;
+        docTerms[doc] = null;
+        return true;
+    }
+
+    public boolean contains(int doc) {
+        return doc >= 0 && doc < lengths.length && lengths[doc] > 0;
+    }
+
+    public int size() {
+        return documents;
+    }
+
+    /**
+     * Наибольший id документа в индексе, -1 для пустого.
+     */
+    public int maxDoc() {
+        for (int doc = lengths.length - 1; doc >= 0; doc--) {
+            if (lengths[doc] > 0) {
+                return doc;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Top-k документов по BM25 для термов запроса (достаточно любого).
+     * Если заданы фразы, документ должен содержать каждую из них подряд.
+     */
+    public List<Hit> search(List<String> queryTerms, List<List<String>> phrases, int limit) {
+        float averageLength = averageLength();
+        List<Cursor> cursors = new ArrayList<>();
+        for (String term : queryTerms.stream().distinct().toList()) {
+            Integer termId = termIds.get(term);
+            if (termId != null && postings.get(termId).size > 0) {
+                cursors.add(new Cursor(postings.get(termId), idf(postings.get(termId).size), averageLength));
+            } else if (phraseTerm(term, phrases)) {
+                return List.of();
+            }
+        }
+        if (cursors.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        TopK top = new TopK(limit);
+        if (phrases.isEmpty()) {
+            maxScore(cursors, top);
+        } else {
+            phraseScan(cursors, phrases, top);
+        }
+        return top.sorted();
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        int live = 0;
+        for (Postings p : postings) {
+            if (p.size > 0) {
+                live++;
+            }
+        }
+        out.writeInt(live);
+        for (int termId = 0; termId < terms.size(); termId++) {
+            Postings p = postings.get(termId);
+            if (p.size == 0) {
+                continue;
+            }
+            out.writeUTF(terms.get(termId));
+            out.writeInt(p.size);
+            for (int i = 0; i < p.size; i++) {
+                out.writeInt(p.docs[i]);
+                out.writeInt(p.tf(i));
+                for (int k = p.offsets[i]; k < p.offsets[i + 1]; k++) {
+                    out.writeInt(p.positions[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Читает снимок, записанный {@link #writeTo}: постинги как есть, без повторного разбора текста.
+     */
+    public static InvertedIndex readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported search snapshot version: " + version);
+        }
+
+        InvertedIndex index = new InvertedIndex();
+        Map<Integer, List<Integer>> termsByDoc = new HashMap<>();
+        int termCount = in.readInt();
+        for (int t = 0; t < termCount; t++) {
+            int termId = index.termId(in.readUTF());
+            Postings p = index.postings.get(termId);
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                int doc = in.readInt();
+                int[] positions = new int[in.readInt()];
+                for (int k = 0; k < positions.length; k++) {
+                    positions[k] = in.readInt();
+                }
+                p.insert(doc, positions, null);
+                index.ensureCapacity(doc);
+                index.lengths[doc] += positions.length;
+                termsByDoc.computeIfAbsent(doc, d -> new ArrayList<>()).add(termId);
+            }
+        }
+        termsByDoc.forEach((doc, docTermIds) -> {
+            index.docTerms[doc] = docTermIds.stream().mapToInt(Integer::intValue).toArray();
+            index.documents++;
+            index.totalLength += index.lengths[doc];
+        });
+        // длины документов известны только теперь
+        for (Postings p : index.postings) {
+            p.refreshBlocks(0, index.lengths);
+        }
+        return index;
+    }
+
+    // поиск
+
+    private void maxScore(List<Cursor> cursors, TopK top) {
+        // термы по возрастанию верхней оценки; bounds[i] - сумма оценок термов 0..i
+        cursors.sort(Comparator.comparingDouble(c -> c.upperBound));
+        int n = cursors.size();
+        float[] bounds = new float[n];
+        float sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += cursors.get(i).upperBound;
+            bounds[i] = sum;
+        }
+
+        // термы до firstEssential сами по себе не выводят документ в top-k
+        int firstEssential = 0;
+        float averageLength = averageLength();
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < n; i++) {
+                doc = Math.min(doc, cursors.get(i).doc());
+            }
+            if (doc == Integer.MAX_VALUE) {
+                return;
+            }
+
+            // граница по блокам: если и она не выше порога, курсоры на этом документе
+            // перескакивают до конца своих блоков (но не дальше документа другого терма)
+            float bound = firstEssential > 0 ? bounds[firstEssential - 1] : 0;
+            int skipTo = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < n; i++) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.doc() == doc) {
+                    bound += cursor.blockBound();
+                    skipTo = Math.min(skipTo, cursor.blockLastDoc() + 1);
+                } else {
+                    skipTo = Math.min(skipTo, cursor.doc());
+                }
+            }
+            if (bound <= top.threshold()) {
+                for (int i = firstEssential; i < n; i++) {
+                    Cursor cursor = cursors.get(i);
+                    if (cursor.doc() == doc) {
+                        cursor.advance(Math.max(skipTo, doc + 1));
+                    }
+                }
+                continue;
+            }
+
+            float norm = norm(doc, averageLength);
+            float score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.doc() == doc) {
+                    score += cursor.score(norm);
+                    cursor.next();
+                }
+            }
+            for (int i = firstEssential - 1; i >= 0 && score + bounds[i] > top.threshold(); i--) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.advance(doc) == doc) {
+                    score += cursor.score(norm);
+                }
+            }
+
+            if (top.offer(doc, score)) {
+                while (firstEssential < n && bounds[firstEssential] <= top.threshold()) {
+                    firstEssential++;
+                }
+                if (firstEssential == n) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void phraseScan(List<Cursor> cursors, List<List<String>> phrases, TopK top) {
+        // кандидаты - документы самого редкого терма фраз, остальные курсоры догоняют
+        Cursor rarest = null;
+        for (Cursor cursor : cursors) {
+            if (phraseTerm(terms.get(cursor.postings.termId), phrases)
+                && (rarest == null || cursor.postings.size < rarest.postings.size)) {
+                rarest = cursor;
+            }
+        }
+        if (rarest == null) {
+            return;
+        }
+
+        float averageLength = averageLength();
+        for (int doc = rarest.doc(); doc != Integer.MAX_VALUE; doc = rarest.next()) {
+            float norm = norm(doc, averageLength);
+            float score = 0;
+            for (Cursor cursor : cursors) {
+                if (cursor.advance(doc) == doc) {
+                    score += cursor.score(norm);
+                }
+            }
+            if (matchesPhrases(doc, phrases)) {
+                top.offer(doc, score);
+            }
+        }
+    }
+
+    private boolean matchesPhrases(int doc, List<List<String>> phrases) {
+        for (List<String> phrase : phrases) {
+            if (!matchesPhrase(doc, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesPhrase(int doc, List<String> phrase) {
+        int[][] positions = new int[phrase.size()][];
+        for (int i = 0; i < phrase.size(); i++) {
+            Integer termId = termIds.get(phrase.get(i));
+            positions[i] = termId == null ? null : postings.get(termId).positionsOf(doc);
+            if (positions[i] == null) {
+                return false;
+            }
+        }
+        for (int start : positions[0]) {
+            boolean matched = true;
+            for (int i = 1; i < positions.length && matched; i++) {
+                matched = Arrays.binarySearch(positions[i], start + i) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean phraseTerm(String term, List<List<String>> phrases) {
+        for (List<String> phrase : phrases) {
+            if (phrase.contains(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private float averageLength() {
+        return documents == 0 ? 1 : (float) totalLength / documents;
+    }
+
+    // K1 * (1 - B + B * |d| / avgdl)
+    private float norm(int doc, float averageLength) {
+        return K1 * (1 - B + B * lengths[doc] / averageLength);
+    }
+
+    // private helpers
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int termId = terms.size();
+        termIds.put(term, termId);
+        terms.add(term);
+        postings.add(new Postings(termId));
+        return termId;
+    }
+
+    private void ensureCapacity(int doc) {
+        if (doc >= lengths.length) {
+            int capacity = Math.max(doc + 1, lengths.length * 2);
+            lengths = Arrays.copyOf(lengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+    }
+
+    // постинг одного терма: docs[i] и его позиции positions[offsets[i] .. offsets[i + 1]);
+    // для блока b (docs[b * BLOCK] ..) - наибольший tf и наименьшая длина документа
+
+    private static final class Postings {
+
+        private final int termId;
+        private int[] docs = new int[2];
+        private int[] offsets = new int[3];
+        private int[] positions = new int[4];
+        private int[] blockMaxTf = new int[1];
+        private int[] blockMinLength = new int[1];
+        private int size;
+
+        Postings(int termId) {
+            this.termId = termId;
+        }
+
+        int tf(int i) {
+            return offsets[i + 1] - offsets[i];
+        }
+
+        int indexOf(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc);
+        }
+
+        int[] positionsOf(int doc) {
+            int i = indexOf(doc);
+            return i < 0 ? null : Arrays.copyOfRange(positions, offsets[i], offsets[i + 1]);
+        }
+
+        // lengths == null - границы блоков пересчитает вызывающий
+        void insert(int doc, int[] docPositions, int[] lengths) {
+            int at = size > 0 && docs[size - 1] < doc ? size : -(indexOf(doc) + 1);
+            int from = offsets[at];
+            int end = offsets[size];
+
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            if (end + docPositions.length > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(end + docPositions.length, positions.length * 2));
+            }
+
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(positions, from, positions, from + docPositions.length, end - from);
+            System.arraycopy(offsets, at + 1, offsets, at + 2, size - at);
+            for (int i = at + 2; i <= size + 1; i++) {
+                offsets[i] += docPositions.length;
+            }
+            docs[at] = doc;
+            System.arraycopy(docPositions, 0, positions, from, docPositions.length);
+            offsets[at + 1] = from + docPositions.length;
+            size++;
+            if (lengths != null) {
+                refreshBlocks(at, lengths);
+            }
+        }
+
+        void remove(int doc, int[] lengths) {
+            int at = indexOf(doc);
+            if (at < 0) {
+                return;
+            }
+            int tf = tf(at);
+            int end = offsets[size];
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(positions, offsets[at + 1], positions, offsets[at], end - offsets[at + 1]);
+            System.arraycopy(offsets, at + 2, offsets, at + 1, size - at - 1);
+            for (int i = at + 1; i < size; i++) {
+                offsets[i] -= tf;
+            }
+            size--;
+            refreshBlocks(at, lengths);
+        }
+
+        // блоки, начиная с того, где лежит позиция from; дописывание в конец трогает только последний
+        void refreshBlocks(int from, int[] lengths) {
+            int blocks = (size + BLOCK - 1) / BLOCK;
+            if (blocks > blockMaxTf.length) {
+                int capacity = Math.max(blocks, blockMaxTf.length * 2);
+                blockMaxTf = Arrays.copyOf(blockMaxTf, capacity);
+                blockMinLength = Arrays.copyOf(blockMinLength, capacity);
+            }
+            for (int b = from / BLOCK; b < blocks; b++) {
+                int maxTf = 0;
+                int minLength = Integer.MAX_VALUE;
+                for (int i = b * BLOCK; i < Math.min(size, (b + 1) * BLOCK); i++) {
+                    maxTf = Math.max(maxTf, tf(i));
+                    minLength = Math.min(minLength, lengths[docs[i]]);
+                }
+                blockMaxTf[b] = maxTf;
+                blockMinLength[b] = minLength;
+            }
+        }
+    }
+
+    private static final class Cursor {
+
+        private final Postings postings;
+        private final float idf;
+        private final float upperBound;
+        private final float averageLength;
+        private int position;
+
+        Cursor(Postings postings, float idf, float averageLength) {
+            this.postings = postings;
+            this.idf = idf;
+            this.upperBound = idf * (K1 + 1);
+            this.averageLength = averageLength;
+        }
+
+        int doc() {
+            return position < postings.size ? postings.docs[position] : Integer.MAX_VALUE;
+        }
+
+        int next() {
+            position++;
+            return doc();
+        }
+
+        // первый документ не меньше target: галоп, затем двоичный поиск
+        int advance(int target) {
+            if (doc() >= target) {
+                return doc();
+            }
+            int step = 1;
+            int low = position;
+            int high = position + 1;
+            while (high < postings.size && postings.docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = position + step;
+            }
+            high = Math.min(high, postings.size);
+            int found = Arrays.binarySearch(postings.docs, low, high, target);
+            position = found >= 0 ? found : -(found + 1);
+            return doc();
+        }
+
+        // оценка сверху для документов текущего блока: наибольший tf при наименьшей длине
+        float blockBound() {
+            int block = position / BLOCK;
+            int tf = postings.blockMaxTf[block];
+            return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * postings.blockMinLength[block] / averageLength));
+        }
+
+        int blockLastDoc() {
+            return postings.docs[Math.min(postings.size, (position / BLOCK + 1) * BLOCK) - 1];
+        }
+
+        float score(float norm) {
+            int tf = postings.tf(position);
+            return idf * tf * (K1 + 1) / (tf + norm);
+        }
+    }
+
+    private static final class TopK {
+
+        private final int limit;
+        // наименьший результат сверху
+        private final PriorityQueue<Hit> heap = new PriorityQueue<>(
+            Comparator.comparingDouble(Hit::score).thenComparingInt(Hit::doc)
+        );
+
+        TopK(int limit) {
+            this.limit = limit;
+        }
+
+        float threshold() {
+            return heap.size() < limit ? 0 : heap.peek().score();
+        }
+
+        // true, если порог вырос
+        boolean offer(int doc, float score) {
+            if (heap.size() < limit) {
+                heap.add(new Hit(doc, score));
+                return heap.size() == limit;
+            }
+            if (score <= heap.peek().score()) {
+                return false;
+            }
+            heap.poll();
+            heap.add(new Hit(doc, score));
+            return true;
+        }
+
+        List<Hit> sorted() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::doc, Comparator.reverseOrder()));
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.folkislove.love.util;
+
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.exception.custom.InvalidCursorException;
+import com.folkislove.love.exception.custom.InvalidPageSizeException;
+
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Позиция в keyset пагинации: (время, id) последней отданной строки.
+ * Клиенту уходит непрозрачной base64url строкой.
+ */
+public record PageCursor(LocalDateTime key, Long id) {
+
+    public static final int MAX_SIZE = 100;
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = key.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null для пустого курсора (первая страница)
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            return new PageCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Лимит запроса для страницы размера size: на одну строку больше, см. {@link #page}.
+     * Размер приходит из запроса как есть, поэтому проверяется здесь для всех курсорных эндпоинтов.
+     */
+    public static Limit limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidPageSizeException(MAX_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+
+    /**
+     * Собирает страницу из строк, запрошенных с лимитом size + 1:
+     * лишняя строка только говорит о том, что есть продолжение.
+     */
+    public static <T> CursorPage<T> page(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        return CursorPage.<T>builder()
+            .content(content)
+            .hasNext(hasNext)
+            .nextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null)
+            .build();
+    }
+}
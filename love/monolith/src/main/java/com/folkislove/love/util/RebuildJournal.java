@@ -0,0 +1,48 @@
+package com.folkislove.love.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений индекса в памяти на время его перестройки из БД.
+ *
+ * Пока перестройка читает таблицы, коммитятся новые изменения: в прочитанное они могут
+ * не попасть, а индекс, к которому их применили хуки, вот-вот подменят. Пока журнал открыт,
+ * изменение применяется к текущему индексу и запоминается, а перед подменой проигрывается
+ * на новом. Попавшее и в чтение, и в журнал применяется дважды, так что изменения
+ * должны быть идемпотентны (или двойной учет должен быть допустим).
+ *
+ * Не потокобезопасен: все вызовы под замком писателей индекса.
+ */
+public final class RebuildJournal<T> {
+
+    // null - перестройки сейчас нет
+    private List<Consumer<T>> changes;
+
+    public void open() {
+        changes = new ArrayList<>();
+    }
+
+    public void apply(T current, Consumer<T> change) {
+        change.accept(current);
+        if (changes != null) {
+            changes.add(change);
+        }
+    }
+
+    /**
+     * Проигрывает записанное на новом индексе и закрывает журнал.
+     */
+    public void replay(T fresh) {
+        if (changes != null) {
+            changes.forEach(change -> change.accept(fresh));
+        }
+        changes = null;
+    }
+
+    // перестройка не удалась: копить больше незачем
+    public void close() {
+        changes = null;
+    }
+}
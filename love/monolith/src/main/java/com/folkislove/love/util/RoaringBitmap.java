@@ -0,0 +1,499 @@
+package com.folkislove.love.util;
+
+import java.util.Arrays;
+
+/**
+ * Сжатое множество неотрицательных int в духе Roaring: значения делятся по старшим
+ * 16 битам на контейнеры, внутри контейнера младшие 16 бит хранятся либо отсортированным
+ * массивом (до 4096 значений, 2 байта на значение), либо битовой картой на 65536 бит (8 КБ).
+ * Пересечение, объединение и разность идут контейнер к контейнеру и возвращают новый объект.
+ *
+ * Не потокобезопасен: изменения и чтения синхронизирует владелец.
+ */
+public final class RoaringBitmap {
+
+    // больше стольких значений массив занимает больше места, чем битовая карта
+    static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        checkValue(value);
+        char key = high(value);
+        int i = Arrays.binarySearch(keys, key);
+        if (i >= 0) {
+            containers[i] = containers[i].add(low(value));
+        } else {
+            insertContainer(-i - 1, key, new ArrayContainer().add(low(value)));
+        }
+    }
+
+    public void remove(int value) {
+        if (value < 0) {
+            return;
+        }
+        int i = Arrays.binarySearch(keys, high(value));
+        if (i < 0) {
+            return;
+        }
+        Container updated = containers[i].remove(low(value));
+        if (updated.cardinality() == 0) {
+            removeContainer(i);
+        } else {
+            containers[i] = updated;
+        }
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, high(value));
+        return i >= 0 && containers[i].contains(low(value));
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (Container container : containers) {
+            total += container.cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return containers.length == 0;
+    }
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        int capacity = Math.min(keys.length, other.keys.length);
+        char[] newKeys = new char[capacity];
+        Container[] newContainers = new Container[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality() > 0) {
+                    newKeys[n] = keys[i];
+                    newContainers[n++] = c;
+                }
+                i++;
+                j++;
+            }
+        }
+        return of(newKeys, newContainers, n);
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        int capacity = keys.length + other.keys.length;
+        char[] newKeys = new char[capacity];
+        Container[] newContainers = new Container[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j >= other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                newKeys[n] = keys[i];
+                newContainers[n++] = containers[i++].copy();
+            } else if (i >= keys.length || keys[i] > other.keys[j]) {
+                newKeys[n] = other.keys[j];
+                newContainers[n++] = other.containers[j++].copy();
+            } else {
+                newKeys[n] = keys[i];
+                newContainers[n++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return of(newKeys, newContainers, n);
+    }
+
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        char[] newKeys = new char[keys.length];
+        Container[] newContainers = new Container[keys.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container c = j < other.keys.length && other.keys[j] == keys[i]
+                ? containers[i].andNot(other.containers[j])
+                : containers[i].copy();
+            if (c.cardinality() > 0) {
+                newKeys[n] = keys[i];
+                newContainers[n++] = c;
+            }
+        }
+        return of(newKeys, newContainers, n);
+    }
+
+    /**
+     * Значения по убыванию, начиная с позиции offset, не больше limit штук.
+     * Целые контейнеры до offset пропускаются по их размеру, без перебора.
+     */
+    public int[] pageDescending(long offset, int limit) {
+        int[] page = new int[(int) Math.max(0, Math.min(limit, cardinality() - offset))];
+        int filled = 0;
+        long skip = offset;
+
+        for (int i = containers.length - 1; i >= 0 && filled < page.length; i--) {
+            Container container = containers[i];
+            if (skip >= container.cardinality()) {
+                skip -= container.cardinality();
+                continue;
+            }
+            int base = keys[i] << 16;
+            filled = container.fillDescending(page, filled, (int) skip, base);
+            skip = 0;
+        }
+        return page;
+    }
+
+    // private helpers
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char low(int value) {
+        return (char) value;
+    }
+
+    private void insertContainer(int at, char key, Container container) {
+        char[] newKeys = new char[keys.length + 1];
+        Container[] newContainers = new Container[containers.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, at);
+        System.arraycopy(containers, 0, newContainers, 0, at);
+        newKeys[at] = key;
+        newContainers[at] = container;
+        System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+        System.arraycopy(containers, at, newContainers, at + 1, containers.length - at);
+        keys = newKeys;
+        containers = newContainers;
+    }
+
+    private void removeContainer(int at) {
+        char[] newKeys = new char[keys.length - 1];
+        Container[] newContainers = new Container[containers.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, at);
+        System.arraycopy(containers, 0, newContainers, 0, at);
+        System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+        System.arraycopy(containers, at + 1, newContainers, at, containers.length - at - 1);
+        keys = newKeys;
+        containers = newContainers;
+    }
+
+    // результат операции над двумя картами: ключи уже по возрастанию
+    private static RoaringBitmap of(char[] keys, Container[] containers, int size) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.keys = Arrays.copyOf(keys, size);
+        bitmap.containers = Arrays.copyOf(containers, size);
+        return bitmap;
+    }
+
+    // контейнеры
+
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container andNot(Container other);
+
+        Container copy();
+
+        // записывает значения по убыванию в target начиная с filled, пропустив skip первых
+        int fillDescending(int[] target, int filled, int skip, int base);
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size >= ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            int at = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, values.length * 2)));
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[size + array.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < array.size) {
+                if (j >= array.size || (i < size && values[i] < array.values[j])) {
+                    merged[n++] = values[i++];
+                } else if (i >= size || values[i] > array.values[j]) {
+                    merged[n++] = array.values[j++];
+                } else {
+                    merged[n++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer result = new ArrayContainer(merged, n);
+            return n > ARRAY_MAX ? result.toBitmap() : result;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            char[] result = new char[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (!other.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        public int fillDescending(int[] target, int filled, int skip, int base) {
+            for (int i = size - 1 - skip; i >= 0 && filled < target.length; i--) {
+                target[filled++] = base | values[i];
+            }
+            return filled;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        void set(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality++;
+            }
+        }
+
+        @Override
+        public Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            long[] result = new long[1024];
+            long[] otherWords = ((BitmapContainer) other).words;
+            for (int i = 0; i < 1024; i++) {
+                result[i] = words[i] & otherWords[i];
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        public Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer array) {
+                BitmapContainer bitmap = new BitmapContainer(result, cardinality);
+                for (int i = 0; i < array.size; i++) {
+                    bitmap.set(array.values[i]);
+                }
+                return bitmap;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            for (int i = 0; i < 1024; i++) {
+                result[i] |= otherWords[i];
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.size; i++) {
+                    char value = array.values[i];
+                    result[value >>> 6] &= ~(1L << value);
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < 1024; i++) {
+                    result[i] &= ~otherWords[i];
+                }
+            }
+            return fromWords(result);
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public int fillDescending(int[] target, int filled, int skip, int base) {
+            for (int w = 1023; w >= 0 && filled < target.length; w--) {
+                long word = words[w];
+                while (word != 0 && filled < target.length) {
+                    int bit = 63 - Long.numberOfLeadingZeros(word);
+                    word &= ~(1L << bit);
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        target[filled++] = base | (w << 6 | bit);
+                    }
+                }
+            }
+            return filled;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int w = 0; w < 1024; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
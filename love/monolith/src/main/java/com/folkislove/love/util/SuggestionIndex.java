@@ -0,0 +1,239 @@
+package com.folkislove.love.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Индекс подсказок по коротким строкам (имена тегов, username).
+ *
+ * Ключи лежат в неизменяемом отсортированном массиве, запись - копия с подменой ссылки
+ * (теги и регистрации меняются редко, чтений на порядки больше). Префиксы - это диапазон
+ * бинарного поиска. Опечатка (замена, вставка, удаление, перестановка соседних букв)
+ * ищется перебором вариантов запроса с одной правкой, причем заменяемые и вставляемые
+ * буквы берутся только из реально существующих продолжений префикса (массив работает
+ * как неявный trie). Каждый вариант - один бинарный поиск, так что "muisc" находит
+ * "musical". Полный обход trie с DP и BK-дерево на 100k коротких строк проверяли -
+ * оба на порядок медленнее.
+ */
+public class SuggestionIndex {
+
+    // сколько совпадений просматриваем, прежде чем взять top-limit
+    private static final int SCAN_LIMIT = 256;
+    private static final int MIN_FUZZY_LENGTH = 4;   // на 1-3 буквах опечатка дает в основном шум
+
+    public record Match(Long id, String text, int distance) {
+    }
+
+    private record Entry(Long id, String text) {
+    }
+
+    private record Snapshot(String[] keys, Entry[] values) {
+
+        // первый индекс, где ключ >= key
+        int ceiling(String key) {
+            int i = Arrays.binarySearch(keys, key);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        boolean hasPrefix(String prefix) {
+            int i = ceiling(prefix);
+            return i < keys.length && keys[i].startsWith(prefix);
+        }
+    }
+
+    /**
+     * Лучшие k по весу без сортировки всех кандидатов: куча из k элементов, наверху худший.
+     * Вес считается один раз на кандидата.
+     */
+    private static final class TopK {
+
+        private record Candidate(Match match, long weight) {
+        }
+
+        private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingLong(Candidate::weight).reversed()
+            .thenComparingInt((Candidate c) -> c.match().text().length())
+            .thenComparing(c -> c.match().text());
+
+        private final int k;
+        private final ToLongFunction<Long> weight;
+        private final PriorityQueue<Candidate> heap;
+        private int scanned;
+
+        private TopK(int k, ToLongFunction<Long> weight) {
+            this.k = k;
+            this.weight = weight;
+            this.heap = new PriorityQueue<>(k + 1, BEST_FIRST.reversed());
+        }
+
+        private boolean full() {
+            return scanned >= SCAN_LIMIT;
+        }
+
+        private void offer(Match match) {
+            scanned++;
+            heap.offer(new Candidate(match, weight.applyAsLong(match.id())));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        private List<Match> sorted() {
+            List<Candidate> candidates = new ArrayList<>(heap);
+            candidates.sort(BEST_FIRST);
+            List<Match> matches = new ArrayList<>(candidates.size());
+            candidates.forEach(c -> matches.add(c.match()));
+            return matches;
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new Entry[0]);
+
+    public synchronized void replaceAll(Map<Long, String> items) {
+        TreeMap<String, Entry> sorted = new TreeMap<>();
+        items.forEach((id, text) -> sorted.put(normalize(text), new Entry(id, text)));
+        snapshot = new Snapshot(sorted.keySet().toArray(String[]::new), sorted.values().toArray(Entry[]::new));
+    }
+
+    public synchronized void put(Long id, String text) {
+        String key = normalize(text);
+        Snapshot current = snapshot;
+        int i = Arrays.binarySearch(current.keys(), key);
+        if (i >= 0) {
+            Entry[] values = current.values().clone();
+            values[i] = new Entry(id, text);
+            snapshot = new Snapshot(current.keys(), values);
+            return;
+        }
+        int at = -i - 1;
+        snapshot = new Snapshot(insert(current.keys(), at, key), insert(current.values(), at, new Entry(id, text)));
+    }
+
+    public synchronized void remove(Long id, String text) {
+        Snapshot current = snapshot;
+        int i = Arrays.binarySearch(current.keys(), normalize(text));
+        if (i < 0 || !current.values()[i].id().equals(id)) {
+            return;
+        }
+        snapshot = new Snapshot(delete(current.keys(), i), delete(current.values(), i));
+    }
+
+    public int size() {
+        return snapshot.keys().length;
+    }
+
+    /**
+     * Сначала записи, начинающиеся с запроса (по убыванию веса), затем - если места
+     * осталось - начинающиеся с запроса с одной опечаткой (тоже по весу).
+     */
+    public List<Match> suggest(String query, int limit, ToLongFunction<Long> weight) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String prefix = normalize(query);
+        Snapshot current = snapshot;
+
+        TopK exact = new TopK(limit, weight);
+        collect(current, prefix, 0, exact, null);
+
+        List<Match> result = exact.sorted();
+        if (result.size() >= limit || prefix.length() < MIN_FUZZY_LENGTH) {
+            return result;
+        }
+
+        Set<String> seen = new HashSet<>();
+        result.forEach(m -> seen.add(normalize(m.text())));
+
+        TopK fuzzy = new TopK(limit - result.size(), weight);
+        oneTypo(current, prefix, fuzzy, seen);
+        result.addAll(fuzzy.sorted());
+        return result;
+    }
+
+    // private helpers
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void collect(Snapshot snapshot, String prefix, int distance, TopK target, Set<String> seen) {
+        String[] keys = snapshot.keys();
+        for (int i = snapshot.ceiling(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            if (target.full()) {
+                return;
+            }
+            if (seen == null || seen.add(keys[i])) {
+                Entry entry = snapshot.values()[i];
+                target.offer(new Match(entry.id(), entry.text(), distance));
+            }
+        }
+    }
+
+    // варианты запроса с одной правкой в позиции k; дальше k идти незачем, если префикс q[0..k] уже не встречается
+    private static void oneTypo(Snapshot snapshot, String query, TopK target, Set<String> seen) {
+        String[] keys = snapshot.keys();
+        int m = query.length();
+
+        for (int k = 0; k <= m && !target.full(); k++) {
+            String head = query.substring(0, k);
+            String tail = query.substring(k);
+
+            if (k < m) {
+                probe(snapshot, head + query.substring(k + 1), target, seen);
+            }
+            if (k + 1 < m) {
+                probe(snapshot, head + query.charAt(k + 1) + query.charAt(k) + query.substring(k + 2), target, seen);
+            }
+
+            // дети head: первый ключ длиннее head, затем прыжок на head + (c + 1)
+            int i = snapshot.ceiling(head);
+            if (i < keys.length && keys[i].length() == k) {
+                i++;
+            }
+            while (i < keys.length && keys[i].startsWith(head) && !target.full()) {
+                char c = keys[i].charAt(k);
+                if (k < m && c != query.charAt(k)) {
+                    probe(snapshot, head + c + query.substring(k + 1), target, seen);
+                }
+                probe(snapshot, head + c + tail, target, seen);
+
+                if (c == Character.MAX_VALUE) {
+                    break;
+                }
+                i = snapshot.ceiling(head + (char) (c + 1));
+            }
+
+            if (k < m && !snapshot.hasPrefix(head + query.charAt(k))) {
+                return;
+            }
+        }
+    }
+
+    private static void probe(Snapshot snapshot, String variant, TopK target, Set<String> seen) {
+        if (snapshot.hasPrefix(variant)) {
+            collect(snapshot, variant, 1, target, seen);
+        }
+    }
+
+    private static <T> T[] insert(T[] array, int at, T value) {
+        T[] copy = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        copy[at] = value;
+        return copy;
+    }
+
+    private static <T> T[] delete(T[] array, int at) {
+        T[] copy = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, at + 1, copy, at, array.length - at - 1);
+        return copy;
+    }
+}
@@ -0,0 +1,66 @@
+package com.folkislove.love.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбивает текст на термы для полнотекстового поиска: буквы и цифры, нижний регистр,
+ * без диакритики (Dvořák -> dvorak, Ñandú -> nandu, ё -> е), чтобы имена исполнителей
+ * и названия находились при наборе без специальных символов.
+ */
+public final class TextAnalyzer {
+
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                // слишком длинное - скорее ссылка или мусор, чем слово
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    tokens.add(folded.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            // буквы, которые NFD не раскладывает
+            switch (c) {
+                case 'ø', 'Ø' -> folded.append('o');
+                case 'æ', 'Æ' -> folded.append("ae");
+                case 'œ', 'Œ' -> folded.append("oe");
+                case 'ß' -> folded.append("ss");
+                case 'ł', 'Ł' -> folded.append('l');
+                case 'đ', 'Đ' -> folded.append('d');
+                case 'þ', 'Þ' -> folded.append("th");
+                case 'ı' -> folded.append('i');
+                default -> folded.append(c);
+            }
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+}
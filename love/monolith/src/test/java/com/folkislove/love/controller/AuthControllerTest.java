@@ -16,6 +16,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -103,6 +104,18 @@ class AuthControllerTest {
         verify(userMapper, times(1)).toDto(user);
     }
 
+    @Test
+    void availability_shouldReportOnlyRequestedFields() throws Exception {
+        when(authService.isUsernameAvailable("user1")).thenReturn(false);
+
+        mockMvc.perform(get("/api/auth/availability").param("username", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false))
+                .andExpect(jsonPath("$.emailAvailable").doesNotExist());
+
+        verify(authService, never()).isEmailAvailable(anyString());
+    }
+
     @Test
     void register_shouldReturnBadRequest_whenMissingEmail() throws Exception {
         RegisterRequest request = new RegisterRequest();
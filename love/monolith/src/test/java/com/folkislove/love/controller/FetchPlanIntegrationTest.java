@@ -0,0 +1,167 @@
+package com.folkislove.love.controller;
+
+import com.folkislove.love.model.Comment;
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.repository.EventRepository;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.service.JwtService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Open-session-in-view выключен: любой ленивый доступ вне транзакции сервиса
+ * падает с LazyInitializationException, и эндпоинт перестает отвечать 200.
+ * Тест проходит по всем эндпоинтам, которые маппят сущности в DTO.
+ */
+@SpringBootTest(properties = "spring.profiles.active=test")
+@AutoConfigureMockMvc
+class FetchPlanIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtService jwtService;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private PostRepository postRepository;
+    @Autowired private EventRepository eventRepository;
+    @Autowired private CommentRepository commentRepository;
+
+    private User author;
+    private Tag tag;
+    private Post post;
+    private Event event;
+    private Comment comment;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tag = tagRepository.save(Tag.builder().name("fetch-plan").build());
+        author = userRepository.save(User.builder()
+            .username("planner")
+            .email("planner@example.com")
+            .passwordHash("hash")
+            .interests(Set.of(tag))
+            .build());
+        post = postRepository.save(Post.builder()
+            .title("Title")
+            .content("Content")
+            .author(author)
+            .tags(Set.of(tag))
+            .build());
+        event = eventRepository.save(Event.builder()
+            .title("Event")
+            .description("Description")
+            .dateTime(LocalDateTime.now().plusDays(3))
+            .city("Yerevan")
+            .country("Armenia")
+            .author(author)
+            .tags(Set.of(tag))
+            .build());
+        comment = commentRepository.save(Comment.builder()
+            .post(post)
+            .author(author)
+            .content("Nice")
+            .build());
+        token = jwtService.generateToken(author);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+        tagRepository.deleteAll();
+    }
+
+    @Test
+    void postEndpointsMapEntitiesWithoutOpenSession() throws Exception {
+        mockMvc.perform(get("/api/posts/{id}", post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.authorUsername").value("planner"))
+            .andExpect(jsonPath("$.tags[0]").value("fetch-plan"));
+
+        mockMvc.perform(get("/api/posts"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(authorized(put("/api/posts/{id}", post.getId()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Renamed\",\"content\":\"Content\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tags[0]").value("fetch-plan"));
+    }
+
+    @Test
+    void eventEndpointsMapEntitiesWithoutOpenSession() throws Exception {
+        mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.authorUsername").value("planner"))
+            .andExpect(jsonPath("$.tags[0]").value("fetch-plan"));
+
+        mockMvc.perform(get("/api/events/upcoming"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void commentEndpointsMapEntitiesWithoutOpenSession() throws Exception {
+        mockMvc.perform(get("/api/comments/post/{id}", post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].authorUsername").value("planner"));
+
+        mockMvc.perform(authorized(put("/api/comments/{id}", comment.getId()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Edited"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.authorUsername").value("planner"));
+    }
+
+    @Test
+    void userEndpointsMapEntitiesWithoutOpenSession() throws Exception {
+        mockMvc.perform(authorized(get("/api/users/me")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.interests[0]").value("fetch-plan"));
+
+        mockMvc.perform(authorized(get("/api/users/{username}", "planner")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.interests[0]").value("fetch-plan"));
+    }
+
+    @Test
+    void connectionHoldTimeIsRecordedPerEndpoint() throws Exception {
+        mockMvc.perform(get("/api/posts/{id}", post.getId()))
+            .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("db.connection.hold")
+            .tag("endpoint", "/api/posts/{id}")
+            .timer()
+            .count() > 0);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+}
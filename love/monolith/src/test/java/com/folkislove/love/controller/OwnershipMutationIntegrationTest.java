@@ -0,0 +1,209 @@
+package com.folkislove.love.controller;
+
+import com.folkislove.common.enums.Role;
+import com.folkislove.love.model.Comment;
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.repository.EventRepository;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.service.JwtService;
+import com.folkislove.love.service.PostPurgeService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class OwnershipMutationIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtService jwtService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private PostRepository postRepository;
+    @Autowired private EventRepository eventRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private PostPurgeService postPurgeService;
+
+    private User owner;
+    private User stranger;
+    private User admin;
+    private Post post;
+    private Event event;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        Tag tag = tagRepository.save(Tag.builder().name("ownership").build());
+        owner = userRepository.save(user("owner", Role.USER));
+        stranger = userRepository.save(user("stranger", Role.USER));
+        admin = userRepository.save(user("boss", Role.ADMIN));
+
+        post = postRepository.save(Post.builder()
+            .title("Title")
+            .content("Content")
+            .author(owner)
+            .tags(Set.of(tag))
+            .build());
+        event = eventRepository.save(Event.builder()
+            .title("Event")
+            .description("Description")
+            .dateTime(LocalDateTime.now().plusDays(3))
+            .city("Yerevan")
+            .country("Armenia")
+            .author(owner)
+            .tags(Set.of(tag))
+            .build());
+        comment = commentRepository.save(Comment.builder()
+            .post(post)
+            .author(owner)
+            .content("First")
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+        tagRepository.deleteAll();
+    }
+
+    @Test
+    void onlyAuthorCanEditPost() throws Exception {
+        mockMvc.perform(as(stranger, put("/api/posts/{id}", post.getId())).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Hacked\",\"content\":\"x\"}"))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(as(admin, put("/api/posts/{id}", post.getId())).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Hacked\",\"content\":\"x\"}"))
+            .andExpect(status().isForbidden());
+
+        mockMvc.perform(as(owner, put("/api/posts/{id}", post.getId())).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Renamed\",\"content\":\"Content\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Renamed"))
+            .andExpect(jsonPath("$.tags[0]").value("ownership"));
+    }
+
+    @Test
+    void missingPostIsNotFoundRatherThanForbidden() throws Exception {
+        mockMvc.perform(as(stranger, put("/api/posts/{id}", 999_999)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Title\",\"content\":\"x\"}"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(as(stranger, delete("/api/posts/{id}", 999_999)))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void adminCanDeletePostWithCommentsAndTags() throws Exception {
+        mockMvc.perform(as(stranger, delete("/api/posts/{id}", post.getId())))
+            .andExpect(status().isForbidden());
+
+        mockMvc.perform(as(admin, delete("/api/posts/{id}", post.getId())))
+            .andExpect(status().isNoContent());
+
+        // tombstone: пост сразу не виден, комментарии уходят фоновой чисткой
+        assertFalse(postRepository.existsById(post.getId()));
+        mockMvc.perform(get("/api/posts/{id}", post.getId()))
+            .andExpect(status().isNotFound());
+
+        postPurgeService.purgeTombstones();
+        assertFalse(commentRepository.existsById(comment.getId()));
+    }
+
+    @Test
+    void eventEditIsOwnerOnlyAndDeleteIsOwnerOrAdmin() throws Exception {
+        mockMvc.perform(as(stranger, put("/api/events/{id}", event.getId())).contentType(MediaType.APPLICATION_JSON)
+                .content(eventJson("Hacked")))
+            .andExpect(status().isForbidden());
+
+        mockMvc.perform(as(owner, put("/api/events/{id}", event.getId())).contentType(MediaType.APPLICATION_JSON)
+                .content(eventJson("Renamed")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Renamed"));
+
+        mockMvc.perform(as(admin, delete("/api/events/{id}", event.getId())))
+            .andExpect(status().isNoContent());
+        assertFalse(eventRepository.existsById(event.getId()));
+    }
+
+    @Test
+    void commentEditIsOneConditionalUpdatePlusReload() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(as(owner, put("/api/comments/{id}", comment.getId()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Edited"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content").value("Edited"))
+            .andExpect(jsonPath("$.edited").value(true));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void strangerCannotTouchCommentButAdminCanDeleteIt() throws Exception {
+        mockMvc.perform(as(stranger, put("/api/comments/{id}", comment.getId()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Hacked"))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(as(stranger, delete("/api/comments/{id}", comment.getId())))
+            .andExpect(status().isForbidden());
+
+        mockMvc.perform(as(admin, delete("/api/comments/{id}", comment.getId())))
+            .andExpect(status().isNoContent());
+        assertFalse(commentRepository.existsById(comment.getId()));
+
+        mockMvc.perform(as(admin, delete("/api/comments/{id}", comment.getId())))
+            .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(user));
+    }
+
+    private static String eventJson(String title) {
+        return """
+            {"title":"%s","description":"x","dateTime":"%s","city":"Yerevan","country":"Armenia"}
+            """.formatted(title, LocalDateTime.now().plusDays(5).withNano(0));
+    }
+
+    private static User user(String username, Role role) {
+        return User.builder()
+            .username(username)
+            .email(username + "@example.com")
+            .passwordHash("hash")
+            .role(role)
+            .build();
+    }
+}
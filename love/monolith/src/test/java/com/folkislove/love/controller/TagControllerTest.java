@@ -0,0 +1,81 @@
+package com.folkislove.love.controller;
+
+import com.folkislove.love.exception.GlobalExceptionHandler;
+import com.folkislove.love.mapper.TagMapper;
+import com.folkislove.love.service.CurrentUserService;
+import com.folkislove.love.service.SuggestionService;
+import com.folkislove.love.service.TagService;
+import com.folkislove.love.service.TagUsageService;
+import com.folkislove.love.util.SuggestionIndex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class TagControllerTest {
+
+    private static final String ETAG = "\"tags-2-abc\"";
+
+    private MockMvc mockMvc;
+    private TagService tagService;
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        tagService = mock(TagService.class);
+        suggestionService = mock(SuggestionService.class);
+        when(tagService.getTagsVersion()).thenReturn(ETAG);
+        when(tagService.getAllTags(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10), 0));
+
+        TagController controller = new TagController(
+                tagService, mock(TagUsageService.class), suggestionService,
+                Mappers.getMapper(TagMapper.class), mock(CurrentUserService.class)
+        );
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getAllTags_shouldReturnEtag() throws Exception {
+        mockMvc.perform(get("/api/tags"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG));
+    }
+
+    @Test
+    void getAllTags_shouldReturnNotModified_whenEtagMatches() throws Exception {
+        mockMvc.perform(get("/api/tags").header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(tagService, never()).getAllTags(any());
+    }
+
+    @Test
+    void suggestTags_shouldReturnMatchesAndCapLimit() throws Exception {
+        when(suggestionService.suggestTags("mus", 20)).thenReturn(List.of(
+                new SuggestionIndex.Match(1L, "Music", 0),
+                new SuggestionIndex.Match(2L, "Museum", 0)
+        ));
+
+        mockMvc.perform(get("/api/tags/suggest").param("q", "mus").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].name").value("Museum"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.folkislove.love.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+import java.io.IOException;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // по одному запросу на чтение и на запись
+        filter = new ConcurrencyLimitFilter(meterRegistry, true, 1, 1, 1, 1, 1, 1, 1.5, 0.2, 100);
+    }
+
+    @Test
+    void shedsRequestsAboveLimitWith503() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        FilterChain chain = (req, res) -> nested.set(perform("GET", "/api/posts", (r, s) -> {}));
+        MockHttpServletResponse outer = perform("GET", "/api/posts", chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("http.concurrency.dropped").tag("class", "reads").counter().count());
+    }
+
+    @Test
+    void readsAndWritesHaveSeparateLimits() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        FilterChain chain = (req, res) -> nested.set(perform("GET", "/api/posts", (r, s) -> {}));
+        perform("POST", "/api/posts", chain);
+
+        assertEquals(200, nested.get().getStatus());
+    }
+
+    @Test
+    void releasesSlotWhenChainThrows() throws Exception {
+        assertThrows(IllegalStateException.class, () -> perform("GET", "/api/posts", (req, res) -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(0.0, meterRegistry.get("http.concurrency.inflight").tag("class", "reads").gauge().value());
+        assertEquals(200, perform("GET", "/api/posts", (req, res) -> {}).getStatus());
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,113 @@
+package com.folkislove.love.filter;
+
+import com.folkislove.common.enums.Role;
+import com.folkislove.love.exception.custom.JwtAuthenticationException;
+import com.folkislove.love.repository.TokenRevocationRepository;
+import com.folkislove.love.security.AuthenticatedUser;
+import com.folkislove.love.security.JwtClaims;
+import com.folkislove.love.security.TokenRevocationRegistry;
+import com.folkislove.love.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.servlet.FilterChain;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtFilterTest {
+
+    private static final String TOKEN = "token";
+
+    private JwtService jwtService;
+    private UserDetailsService userDetailsService;
+    private TokenRevocationRegistry revocationRegistry;
+
+    private JwtFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        userDetailsService = mock(UserDetailsService.class);
+        revocationRegistry = new TokenRevocationRegistry(
+            mock(TokenRevocationRepository.class), mock(PlatformTransactionManager.class), 60_000);
+
+        filter = new JwtFilter(jwtService, userDetailsService, revocationRegistry, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenIsNotVerifiedWhenNobodyReadsSecurityContext() throws Exception {
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(), (req, res) -> {});
+
+        verifyNoInteractions(jwtService, userDetailsService);
+    }
+
+    @Test
+    void tokenIsVerifiedOnceWhenSecurityContextIsRead() throws Exception {
+        when(jwtService.parseToken(TOKEN)).thenReturn(claims("john", 0));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        FilterChain chain = (req, res) -> {
+            seen.set(SecurityContextHolder.getContext().getAuthentication());
+            SecurityContextHolder.getContext().getAuthentication();
+        };
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(seen.get());
+        assertEquals("john", seen.get().getName());
+        assertInstanceOf(AuthenticatedUser.class, seen.get().getPrincipal());
+        verify(jwtService, times(1)).parseToken(TOKEN);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void invalidTokenLeavesRequestUnauthenticated() throws Exception {
+        when(jwtService.parseToken(TOKEN)).thenThrow(new JwtAuthenticationException("Invalid JWT token"));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(),
+            (req, res) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+
+        assertNull(seen.get());
+    }
+
+    @Test
+    void revokedTokenLeavesRequestUnauthenticated() throws Exception {
+        when(jwtService.parseToken(TOKEN)).thenReturn(claims("john", 0));
+        revocationRegistry.revokeAll("john");
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(requestWithToken(), new MockHttpServletResponse(),
+            (req, res) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+
+        assertNull(seen.get());
+    }
+
+    // private helpers
+
+    private MockHttpServletRequest requestWithToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        return request;
+    }
+
+    private JwtClaims claims(String username, long generation) {
+        Instant now = Instant.now();
+        return new JwtClaims(1L, username, Role.USER, generation, now, now.plusSeconds(60));
+    }
+}
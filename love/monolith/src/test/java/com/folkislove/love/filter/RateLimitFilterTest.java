@@ -0,0 +1,112 @@
+package com.folkislove.love.filter;
+
+import com.folkislove.common.enums.Role;
+import com.folkislove.love.security.AuthenticatedUser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // auth: 1, reads: 2, writes: 1 запрос без пополнения
+        filter = new RateLimitFilter(meterRegistry, true, 1000, 1, 0.001, 2, 0.001, 1, 0.001);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsWithRetryAfterOnceBucketIsEmpty() throws Exception {
+        assertEquals(200, perform(request("GET", "/api/posts", "10.0.0.1")).getStatus());
+        assertEquals(200, perform(request("GET", "/api/posts", "10.0.0.1")).getStatus());
+
+        MockHttpServletResponse rejected = perform(request("GET", "/api/posts", "10.0.0.1"));
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(rejected.getHeader("Retry-After")) >= 1);
+        assertEquals(1.0, meterRegistry.get("http.rate.limit.rejected").tag("class", "reads").counter().count());
+    }
+
+    @Test
+    void routeClassesHaveSeparateBudgets() throws Exception {
+        assertEquals(200, perform(request("POST", "/api/auth/login", "10.0.0.1")).getStatus());
+        assertEquals(429, perform(request("POST", "/api/auth/login", "10.0.0.1")).getStatus());
+
+        assertEquals(200, perform(request("GET", "/api/posts", "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void writesAreKeyedByUserNotAddress() throws Exception {
+        authenticate("john");
+        assertEquals(200, perform(request("POST", "/api/posts", "10.0.0.1")).getStatus());
+        assertEquals(429, perform(request("POST", "/api/posts", "10.0.0.2")).getStatus());
+
+        authenticate("jane");
+        assertEquals(200, perform(request("POST", "/api/posts", "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void authenticatedReadsAreKeyedByUser() throws Exception {
+        authenticate("john");
+        perform(request("GET", "/api/posts", "10.0.0.1"));
+        perform(request("GET", "/api/posts", "10.0.0.1"));
+        assertEquals(429, perform(request("GET", "/api/posts", "10.0.0.2")).getStatus());
+
+        // тот же адрес, другой пользователь - свое ведро
+        authenticate("jane");
+        assertEquals(200, perform(request("GET", "/api/posts", "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void anonymousReadsAreKeyedByAddress() throws Exception {
+        perform(request("GET", "/api/posts", "10.0.0.1"));
+        perform(request("GET", "/api/posts", "10.0.0.1"));
+
+        assertEquals(429, perform(request("GET", "/api/posts", "10.0.0.1")).getStatus());
+        assertEquals(200, perform(request("GET", "/api/posts", "10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void nonApiRequestsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(request("GET", "/actuator/health", "10.0.0.1")).getStatus());
+        }
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {});
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static void authenticate(String username) {
+        AuthenticatedUser principal = new AuthenticatedUser((long) username.hashCode(), username, Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.authorities())
+        );
+    }
+}
@@ -1,7 +1,6 @@
 package com.folkislove.love.mapper;
 
 import com.folkislove.common.dto.response.PostResponse;
-import com.folkislove.love.model.Comment;
 import com.folkislove.love.model.Post;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.model.User;
@@ -36,9 +35,6 @@ class PostMapperTest {
         Tag tag1 = Tag.builder().id(1L).name(TAG1).build();
         Tag tag2 = Tag.builder().id(2L).name(TAG2).build();
 
-        Comment comment1 = Comment.builder().id(1L).build();
-        Comment comment2 = Comment.builder().id(2L).build();
-
         Post post = Post.builder()
                 .id(10L)
                 .title(TITLE)
@@ -46,7 +42,7 @@ class PostMapperTest {
                 .author(author)
                 .createdAt(CREATED_AT)
                 .tags(Set.of(tag1, tag2))
-                .comments(Set.of(comment1, comment2))
+                .commentsCount(2)
                 .build();
 
         PostResponse dto = mapper.toDto(post);
@@ -74,7 +70,6 @@ class PostMapperTest {
                 .title(TITLE)
                 .content(CONTENT)
                 .tags(Set.of())
-                .comments(Set.of())
                 .build();
 
         PostResponse dto = mapper.toDto(post);
@@ -130,6 +125,18 @@ class PostMapperTest {
                 .isInstanceOf(UnsupportedOperationException.class);
     }
 
+    @Test
+    void commentsCountShouldNotTouchCommentsCollection() {
+        Post post = Post.builder()
+                .commentsCount(5)
+                .comments(null)
+                .build();
+
+        PostResponse dto = mapper.toDto(post);
+
+        assertThat(dto.getCommentsCount()).isEqualTo(5);
+    }
+
     @ParameterizedTest
     @NullSource
     void shouldReturnNullWhenPostIsNull(Post post) {
@@ -0,0 +1,84 @@
+package com.folkislove.love.security;
+
+import com.folkislove.love.exception.custom.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OffloadingPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OffloadingPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) encoder.close();
+    }
+
+    @Test
+    void delegatesEncodeAndMatchesToWrappedEncoder() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode("secret")).thenReturn("hash");
+        when(delegate.matches("secret", "hash")).thenReturn(true);
+        encoder = new OffloadingPasswordEncoder(delegate, 2, 4, Duration.ofSeconds(5), registry);
+
+        assertEquals("hash", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hash"));
+        assertEquals(1, registry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(1, registry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void rejectsFastWhenPoolAndQueueAreSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        encoder = new OffloadingPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), registry);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "h"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "h"));
+        waitForQueueDepth(1);
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+                () -> encoder.matches("c", "h"));
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("auth.password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void upgradeEncodingIsAnsweredInline() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+        encoder = new OffloadingPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), registry);
+
+        assertTrue(encoder.upgradeEncoding("hash"));
+    }
+
+    // private helper
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (encoder.getQueueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
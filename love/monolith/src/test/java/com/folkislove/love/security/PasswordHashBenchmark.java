@@ -0,0 +1,65 @@
+package com.folkislove.love.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность BCrypt на текущей машине для каждой стоимости.
+ * Запуск: mvn test -pl monolith -Dtest=PasswordHashBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PasswordHashBenchmark {
+
+    private static final int MIN_STRENGTH = 8;
+    private static final int MAX_STRENGTH = 14;
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    @Test
+    void hashesPerSecondPerCore() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(cores);
+
+        System.out.printf("BCrypt throughput, %d cores%n", cores);
+        System.out.printf("%-8s %12s %14s %12s%n", "strength", "hashes/sec", "hashes/s/core", "ms/hash");
+
+        try {
+            for (int strength = MIN_STRENGTH; strength <= MAX_STRENGTH; strength++) {
+                BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+                encoder.encode("warm-up");
+
+                long start = System.nanoTime();
+                List<Future<Integer>> workers = new ArrayList<>();
+                for (int i = 0; i < cores; i++) {
+                    workers.add(pool.submit(() -> {
+                        int hashes = 0;
+                        while (System.nanoTime() - start < RUN_NANOS || hashes == 0) {
+                            encoder.encode("Benchmark-Password-42!");
+                            hashes++;
+                        }
+                        return hashes;
+                    }));
+                }
+
+                int total = 0;
+                for (Future<Integer> worker : workers) {
+                    total += worker.get();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double perSecond = total / seconds;
+
+                System.out.printf("%-8d %12.1f %14.2f %12.1f%n",
+                    strength, perSecond, perSecond / cores, 1000.0 * cores / perSecond);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
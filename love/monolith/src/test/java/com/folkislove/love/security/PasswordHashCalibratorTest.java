@@ -0,0 +1,52 @@
+package com.folkislove.love.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashCalibratorTest {
+
+    private static final String PASSWORD = "Password-123!";
+
+    @Test
+    void calibrateStaysWithinStrengthBounds() {
+        assertEquals(5, PasswordHashCalibrator.calibrate(Duration.ofMinutes(1), 4, 5));
+        assertEquals(6, PasswordHashCalibrator.calibrate(Duration.ZERO, 6, 8));
+    }
+
+    @Test
+    void encodesWithStrengthPrefix() {
+        PasswordEncoder encoder = PasswordHashCalibrator.bcryptEncoder(5);
+
+        String hash = encoder.encode(PASSWORD);
+
+        assertTrue(hash.startsWith("{bcrypt-5}$2a$05$"));
+        assertTrue(encoder.matches(PASSWORD, hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void requestsRehashOnlyForWeakerStrengths() {
+        String weaker = PasswordHashCalibrator.bcryptEncoder(4).encode(PASSWORD);
+        String stronger = PasswordHashCalibrator.bcryptEncoder(6).encode(PASSWORD);
+        PasswordEncoder encoder = PasswordHashCalibrator.bcryptEncoder(5);
+
+        assertTrue(encoder.matches(PASSWORD, weaker));
+        assertTrue(encoder.matches(PASSWORD, stronger));
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertFalse(encoder.upgradeEncoding(stronger));
+    }
+
+    @Test
+    void acceptsAndUpgradesLegacyHashesWithoutPrefix() {
+        String legacy = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        PasswordEncoder encoder = PasswordHashCalibrator.bcryptEncoder(5);
+
+        assertTrue(encoder.matches(PASSWORD, legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+}
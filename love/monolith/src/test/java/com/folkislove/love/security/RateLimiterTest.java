@@ -0,0 +1,82 @@
+package com.folkislove.love.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        RateLimiter limiter = new RateLimiter(3, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+
+        long wait = limiter.tryAcquire("a", 0);
+        assertTrue(wait > 0 && wait <= SECOND, "wait should be at most one refill interval: " + wait);
+    }
+
+    @Test
+    void refillsOverTime() {
+        RateLimiter limiter = new RateLimiter(1, 2, 100);
+
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertTrue(limiter.tryAcquire("a", SECOND / 4) > 0);
+        assertEquals(0, limiter.tryAcquire("a", SECOND / 2));
+    }
+
+    @Test
+    void keysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertTrue(limiter.tryAcquire("a", 0) > 0);
+        assertEquals(0, limiter.tryAcquire("b", 0));
+    }
+
+    @Test
+    void boundsNumberOfKeysPreferringIdleBuckets() {
+        RateLimiter limiter = new RateLimiter(1, 1, 4);
+
+        limiter.tryAcquire("idle", 0);
+        limiter.tryAcquire("b", 10 * SECOND);
+        limiter.tryAcquire("c", 10 * SECOND);
+        limiter.tryAcquire("d", 10 * SECOND);
+        limiter.tryAcquire("e", 10 * SECOND);
+
+        assertTrue(limiter.size() <= 4);
+        // выброшенное пополненное ведро снова выдает токен
+        assertEquals(0, limiter.tryAcquire("idle", 10 * SECOND));
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedCapacity() throws Exception {
+        RateLimiter limiter = new RateLimiter(1000, 0.001, 10);
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    if (limiter.tryAcquire("a", now) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, granted.get());
+    }
+}
@@ -0,0 +1,114 @@
+package com.folkislove.love.security;
+
+import com.folkislove.common.enums.Role;
+import com.folkislove.love.model.TokenRevocation;
+import com.folkislove.love.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationRegistryTest {
+
+    private TokenRevocationRepository revocationRepository;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        revocationRepository = mock(TokenRevocationRepository.class);
+        registry = registry(60_000);
+    }
+
+    @Test
+    void tokensAreNotRevokedByDefault() {
+        assertEquals(0L, registry.currentGeneration("john"));
+        assertFalse(registry.isRevoked(claims("john", 0)));
+    }
+
+    @Test
+    void revokeAllRejectsTokensOfPreviousGenerations() {
+        registry.revokeAll("john");
+        long current = registry.currentGeneration("john");
+
+        assertTrue(registry.isRevoked(claims("john", 0)));
+        assertFalse(registry.isRevoked(claims("john", current)));
+        assertFalse(registry.isRevoked(claims("jane", 0)));
+    }
+
+    @Test
+    void eachRevocationStartsNewGeneration() {
+        registry.revokeAll("john");
+        long first = registry.currentGeneration("john");
+        registry.revokeAll("john");
+
+        assertTrue(registry.currentGeneration("john") > first);
+        assertTrue(registry.isRevoked(claims("john", first)));
+    }
+
+    @Test
+    void revocationAfterPrunedEntryStillRejectsOlderTokens() throws InterruptedException {
+        TokenRevocationRegistry shortLived = registry(1);
+        shortLived.revokeAll("john");
+        JwtClaims afterFirstRevoke = claims("john", shortLived.currentGeneration("john"));
+
+        Thread.sleep(5);
+        shortLived.revokeAll("jane");  // забывает устаревшую запись john
+        JwtClaims afterPrune = claims("john", shortLived.currentGeneration("john"));
+        assertFalse(shortLived.isRevoked(afterFirstRevoke));
+
+        shortLived.revokeAll("john");
+
+        assertTrue(shortLived.isRevoked(afterFirstRevoke));
+        assertTrue(shortLived.isRevoked(afterPrune));
+    }
+
+    @Test
+    void revocationIsPersisted() {
+        registry.revokeAll("john");
+
+        verify(revocationRepository).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    void revocationMadeElsewhereIsPickedUpOnStart() {
+        long generation = Instant.now().toEpochMilli();
+        when(revocationRepository.findByRevokedAtAfter(any()))
+            .thenReturn(List.of(new TokenRevocation("john", generation, Instant.now())));
+
+        // как после рестарта или на другом узле: в памяти пусто
+        TokenRevocationRegistry restarted = registry(60_000);
+        restarted.afterSingletonsInstantiated();
+
+        assertTrue(restarted.isRevoked(claims("john", generation - 1)));
+        assertFalse(restarted.isRevoked(claims("john", generation)));
+    }
+
+    @Test
+    void newGenerationIsAboveOneStoredByAnotherNode() {
+        long ahead = Instant.now().toEpochMilli() + 60_000;
+        when(revocationRepository.findById("john"))
+            .thenReturn(Optional.of(new TokenRevocation("john", ahead, Instant.now())));
+
+        registry.revokeAll("john");
+
+        assertTrue(registry.isRevoked(claims("john", ahead)));
+    }
+
+    // private helpers
+
+    private TokenRevocationRegistry registry(long expirationMs) {
+        return new TokenRevocationRegistry(revocationRepository, mock(PlatformTransactionManager.class), expirationMs);
+    }
+
+    private JwtClaims claims(String username, long generation) {
+        Instant now = Instant.now();
+        return new JwtClaims(1L, username, Role.USER, generation, now, now.plusSeconds(60));
+    }
+}
@@ -1,18 +1,23 @@
 package com.folkislove.love.service;
 
+import com.folkislove.love.exception.custom.UsernameAlreadyTakenException;
 import com.folkislove.love.model.User;
 import com.folkislove.common.enums.Role;
 import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.TokenRevocationRepository;
+import com.folkislove.love.security.TokenRevocationRegistry;
 import com.folkislove.love.util.UserCredentialsValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class AuthServiceTest {
@@ -32,6 +37,9 @@ class AuthServiceTest {
     private PasswordEncoder passwordEncoder;
     private JwtService jwtService;
     private UserCredentialsValidator credentialsValidator;
+    private TokenRevocationRegistry revocationRegistry;
+    private CurrentUserService currentUserService;
+    private AvailabilityService availabilityService;
 
     private AuthService authService;
 
@@ -41,8 +49,17 @@ class AuthServiceTest {
         passwordEncoder = mock(PasswordEncoder.class);
         jwtService = mock(JwtService.class);
         credentialsValidator = mock(UserCredentialsValidator.class);
-
-        authService = new AuthService(userRepository, passwordEncoder, jwtService, credentialsValidator);
+        revocationRegistry = new TokenRevocationRegistry(
+            mock(TokenRevocationRepository.class), mock(PlatformTransactionManager.class), 60_000);
+        currentUserService = mock(CurrentUserService.class);
+        availabilityService = mock(AvailabilityService.class);
+        when(availabilityService.isUsernameAvailable(anyString())).thenReturn(true);
+        when(availabilityService.isEmailAvailable(anyString())).thenReturn(true);
+
+        authService = new AuthService(
+            userRepository, passwordEncoder, jwtService, credentialsValidator,
+            revocationRegistry, currentUserService, availabilityService, mock(SuggestionService.class)
+        );
     }
 
     @Nested
@@ -54,11 +71,57 @@ class AuthServiceTest {
 
             when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
             when(passwordEncoder.matches(PASSWORD, ENCODED_PASSWORD)).thenReturn(true);
-            when(jwtService.generateToken(user)).thenReturn(JWT_TOKEN);
+            when(jwtService.generateToken(user, 0L)).thenReturn(JWT_TOKEN);
+
+            String token = authService.login(USERNAME, PASSWORD);
+
+            assertEquals(JWT_TOKEN, token);
+        }
+
+        @Test
+        void loginAfterLogoutShouldIssueTokenOfNextGeneration() {
+            User user = createActiveUser();
+
+            when(currentUserService.getCurrentUsername()).thenReturn(USERNAME);
+            when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
+            when(passwordEncoder.matches(PASSWORD, ENCODED_PASSWORD)).thenReturn(true);
+            when(jwtService.generateToken(eq(user), anyLong())).thenReturn(JWT_TOKEN);
 
+            authService.logout();
             String token = authService.login(USERNAME, PASSWORD);
 
+            long generation = revocationRegistry.currentGeneration(USERNAME);
             assertEquals(JWT_TOKEN, token);
+            assertTrue(generation > 0);
+            verify(jwtService).generateToken(user, generation);
+        }
+
+        @Test
+        void loginShouldRehashPasswordWhenEncodingIsOutdated() {
+            User user = createActiveUser();
+
+            when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
+            when(passwordEncoder.matches(PASSWORD, ENCODED_PASSWORD)).thenReturn(true);
+            when(passwordEncoder.upgradeEncoding(ENCODED_PASSWORD)).thenReturn(true);
+            when(passwordEncoder.encode(PASSWORD)).thenReturn("rehashed");
+
+            authService.login(USERNAME, PASSWORD);
+
+            assertEquals("rehashed", user.getPasswordHash());
+            verify(userRepository).save(user);
+        }
+
+        @Test
+        void loginShouldNotRehashCurrentEncoding() {
+            User user = createActiveUser();
+
+            when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
+            when(passwordEncoder.matches(PASSWORD, ENCODED_PASSWORD)).thenReturn(true);
+
+            authService.login(USERNAME, PASSWORD);
+
+            verify(passwordEncoder, never()).encode(anyString());
+            verify(userRepository, never()).save(any(User.class));
         }
 
         @Test
@@ -114,6 +177,25 @@ class AuthServiceTest {
             assertEquals(Role.USER, result.getRole());
         }
 
+        @Test
+        void registerShouldRecordNewUserInAvailabilityFilters() {
+            when(passwordEncoder.encode(REGISTER_PASSWORD)).thenReturn(ENCODED_PASSWORD);
+            when(userRepository.save(any(User.class))).thenReturn(createActiveUser());
+
+            authService.register(USERNAME, EMAIL, REGISTER_PASSWORD);
+
+            verify(availabilityService).recordRegistration(USERNAME, EMAIL);
+        }
+
+        @Test
+        void registerShouldThrowWhenUsernameTaken() {
+            when(availabilityService.isUsernameAvailable(USERNAME)).thenReturn(false);
+
+            assertThrows(UsernameAlreadyTakenException.class,
+                    () -> authService.register(USERNAME, EMAIL, REGISTER_PASSWORD));
+            verify(userRepository, never()).save(any(User.class));
+        }
+
         @Test
         void registerShouldThrowWhenUsernameInvalid() {
             doThrow(new IllegalArgumentException(ERROR_MSG))
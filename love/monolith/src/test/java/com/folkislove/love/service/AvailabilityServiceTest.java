@@ -0,0 +1,63 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceTest {
+
+    private UserRepository userRepository;
+    private AvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findAllUsernames()).thenReturn(List.of("john", "jane"));
+        when(userRepository.findAllEmails()).thenReturn(List.of("john@example.com", "Jane@Example.com"));
+
+        service = new AvailabilityService(userRepository, 1000);
+    }
+
+    @Test
+    void goesToDatabaseUntilFiltersAreBuilt() {
+        when(userRepository.existsByUsername("free")).thenReturn(false);
+
+        assertTrue(service.isUsernameAvailable("free"));
+        verify(userRepository).existsByUsername("free");
+    }
+
+    @Test
+    void answersDefinitelyFreeWithoutDatabase() {
+        service.rebuild();
+
+        assertTrue(service.isUsernameAvailable("somebody_new"));
+        assertTrue(service.isEmailAvailable("new@example.com"));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void confirmsPossibleMatchesInDatabase() {
+        service.rebuild();
+        when(userRepository.existsByUsername("john")).thenReturn(true);
+        when(userRepository.existsByEmail("jane@example.com")).thenReturn(true);
+
+        assertFalse(service.isUsernameAvailable("john"));
+        assertFalse(service.isEmailAvailable("jane@example.com"));
+    }
+
+    @Test
+    void registeredUsersAreNoLongerDefinitelyFree() {
+        service.rebuild();
+        service.recordRegistration("fresh", "fresh@example.com");
+        when(userRepository.existsByUsername("fresh")).thenReturn(true);
+
+        assertFalse(service.isUsernameAvailable("fresh"));
+        verify(userRepository).existsByUsername("fresh");
+    }
+}
@@ -0,0 +1,97 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Set;
+
+import static com.folkislove.love.service.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class CommentCountBackfillIntegrationTest {
+
+    @Autowired private PostService postService;
+    @Autowired private PostPurgeService postPurgeService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User author;
+    private Long busy;
+    private Long quiet;
+
+    @BeforeEach
+    void setUp() {
+        author = saveUser(userRepository, "backfill-author");
+        login(author);
+        busy = post(postService, Set.of());
+        quiet = post(postService, Set.of());
+
+        // как до появления колонки: комментарии есть, счетчики нулевые, отметки нет
+        for (int i = 0; i < 3; i++) {
+            seedComment(busy);
+        }
+        seedComment(quiet);
+        jdbcTemplate.update("update posts set comments_count = 0");
+        jdbcTemplate.update("delete from data_migrations where id = ?", CommentCountService.BACKFILL_MIGRATION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from comments");
+        postPurgeService.purgeTombstones();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void firstStartFillsCountersFromComments() {
+        start();
+
+        assertEquals(3, commentsCount(busy));
+        assertEquals(1, commentsCount(quiet));
+    }
+
+    @Test
+    void backfillRunsOnlyOnce() {
+        start();
+        // дальше счетчик ведут дельты; повторный старт не должен его пересчитывать
+        jdbcTemplate.update("update posts set comments_count = 10 where id = ?", busy);
+
+        CommentCountService restarted = new CommentCountService(jdbcTemplate, transactionManager, false);
+        assertFalse(restarted.backfill());
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(10, commentsCount(busy));
+    }
+
+    // helpers
+
+    private void start() {
+        new CommentCountService(jdbcTemplate, transactionManager, false).afterSingletonsInstantiated();
+    }
+
+    private void seedComment(Long postId) {
+        jdbcTemplate.update(
+            "insert into comments (content, post_id, author_id, created_at) values ('c', ?, ?, current_timestamp)",
+            postId, author.getId()
+        );
+    }
+
+    private int commentsCount(Long postId) {
+        return jdbcTemplate.queryForObject("select comments_count from posts where id = ?", Integer.class, postId);
+    }
+}
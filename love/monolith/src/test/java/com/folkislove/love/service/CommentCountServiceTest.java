@@ -0,0 +1,96 @@
+package com.folkislove.love.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CommentCountServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private CommentCountService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        service = new CommentCountService(jdbcTemplate, transactionManager, false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesOneAggregatedRowPerPost() {
+        service.commentAdded(1L);
+        service.commentAdded(1L);
+        service.commentAdded(2L);
+        service.commentRemoved(1L);
+
+        service.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertArrayEquals(new Object[] { 1L, 1L }, batch.getValue().get(0));
+        assertArrayEquals(new Object[] { 1L, 2L }, batch.getValue().get(1));
+        assertEquals(0, service.pendingDelta(1L));
+    }
+
+    @Test
+    void flushSkipsPostsWhoseDeltasCancelOut() {
+        service.commentAdded(1L);
+        service.commentRemoved(1L);
+
+        service.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushKeepsDeltasForNextAttempt() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db down"));
+        service.commentAdded(1L);
+
+        service.flush();
+
+        // batch откатывается целиком, поэтому вернуть в очередь все дельты безопасно
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertEquals(1, service.pendingDelta(1L));
+    }
+
+    @Test
+    void concurrentCommentsOnOnePostAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < perThread; j++) {
+                    service.commentAdded(42L);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, service.pendingDelta(42L));
+    }
+}
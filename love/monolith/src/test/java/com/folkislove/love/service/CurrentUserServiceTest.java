@@ -6,6 +6,8 @@ import com.folkislove.love.exception.custom.AuthorizationException;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
 import com.folkislove.love.model.User;
 import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.Optional;
 
@@ -44,6 +49,12 @@ class CurrentUserServiceTest {
         SecurityContextHolder.setContext(securityContext);
     }
 
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
     @Nested
     class GetCurrentUsernameTests {
 
@@ -194,6 +205,59 @@ class CurrentUserServiceTest {
         }
     }
 
+    @Nested
+    class RequestScopedMemoizationTests {
+
+        @BeforeEach
+        void bindRequest() {
+            RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest())
+            );
+        }
+
+        @Test
+        void loadsUserOncePerRequest() {
+            User user = User.builder().id(1L).username("john").role(Role.USER).build();
+            mockCurrentUser(user);
+
+            service.getCurrentUser();
+            service.isAdmin();
+            service.checkIsOwnerOrAdmin("john");
+            User result = service.getCurrentUser();
+
+            assertSame(user, result);
+            assertEquals(1, service.getUserLookupCount());
+            verify(userRepository, times(1)).findByUsername("john");
+        }
+
+        @Test
+        void newRequestLoadsUserAgain() {
+            User user = User.builder().id(1L).username("john").role(Role.USER).build();
+            mockCurrentUser(user);
+
+            service.getCurrentUser();
+            bindRequest();
+            service.getCurrentUser();
+
+            verify(userRepository, times(2)).findByUsername("john");
+        }
+
+        @Test
+        void claimsPrincipalAnswersRoleAndIdWithoutDatabase() {
+            AuthenticatedUser principal = new AuthenticatedUser(7L, "admin", Role.ADMIN);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.isAuthenticated()).thenReturn(true);
+            when(authentication.getPrincipal()).thenReturn(principal);
+            when(authentication.getName()).thenReturn("admin");
+
+            assertTrue(service.isAdmin());
+            assertTrue(service.isOwnerOrAdmin("someone"));
+            assertEquals(7L, service.getCurrentUserId());
+            assertEquals(0, service.getUserLookupCount());
+            verifyNoInteractions(userRepository);
+        }
+    }
+
     // private helpers
 
     private void mockCurrentUser(User userObj) {
@@ -0,0 +1,224 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.exception.custom.InvalidEventFilterException;
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.EventRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.EventSummary;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.folkislove.love.service.EventSearchIntegrationTest$SqlRecorder"
+})
+class EventSearchIntegrationTest {
+
+    private static final int FILLER = 300;
+
+    @Autowired private EventService eventService;
+    @Autowired private EventRepository eventRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Tag session;
+    private Tag concert;
+    private Long ceili;
+    private Long dublinSession;
+
+    @BeforeEach
+    void setUp() {
+        User author = userRepository.save(User.builder()
+            .username("event-seeker")
+            .email("event-seeker@example.com")
+            .passwordHash("hash")
+            .build());
+        session = tagRepository.save(Tag.builder().name("seek-session").build());
+        concert = tagRepository.save(Tag.builder().name("seek-concert").build());
+
+        LocalDateTime soon = LocalDateTime.now().plusDays(10);
+        ceili = event(author, "Friday Ceili", "Róisín Dubh", "Galway", "Ireland", soon, Set.of(session)).getId();
+        dublinSession = event(author, "Trad session", "The Cobblestone", "Dublin", "Ireland", soon.plusDays(1),
+            Set.of(session)).getId();
+        event(author, "Galway concert", "Town Hall", "Galway", "Ireland", soon.plusDays(2), Set.of(concert));
+        event(author, "Last year's ceili", "Róisín Dubh", "Galway", "Ireland", soon.minusYears(1), Set.of(session));
+
+        // чтобы планировщик H2 выбирал индексы по селективности, а не по пустой таблице
+        for (int i = 0; i < FILLER; i++) {
+            event(author, "Filler " + i, "Hall " + i, "City " + i % 50, "Country " + i % 20,
+                soon.plusDays(i), Set.of());
+        }
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void combinesAllFilters() {
+        EventService.Filter filter = filter("Ireland", "Galway", LocalDate.now(), LocalDate.now().plusMonths(1),
+            List.of(session.getId()), "ceili");
+
+        assertEquals(List.of(ceili), ids(filter));
+    }
+
+    @Test
+    void withoutDatesFindsOnlyUpcomingNearestFirst() {
+        assertEquals(List.of(ceili, dublinSession),
+            ids(filter("Ireland", null, null, null, List.of(session.getId()), null)));
+    }
+
+    @Test
+    void tagsOnlyUseTheSameWindowAndOrder() {
+        assertEquals(List.of(ceili, dublinSession), ids(filter(null, null, null, null, List.of(session.getId()), null)));
+    }
+
+    @Test
+    void explicitDateRangeReachesPastEvents() {
+        LocalDate lastYear = LocalDate.now().minusYears(1);
+
+        assertEquals(1, ids(filter(null, "Galway", lastYear, lastYear.plusMonths(1), List.of(), null)).size());
+    }
+
+    @Test
+    void textMatchesVenueAndEscapesWildcards() {
+        assertEquals(List.of(dublinSession), ids(filter(null, null, null, null, List.of(), "cobblestone")));
+        assertTrue(ids(filter(null, null, null, null, List.of(), "%_")).isEmpty());
+    }
+
+    @Test
+    void excludedTagsAndAnyMode() {
+        EventService.Filter filter = new EventService.Filter("Ireland", null, null, null,
+            List.of(session.getId(), concert.getId()), TagIndexService.Mode.ANY, List.of(session.getId()), null);
+
+        assertEquals(1, ids(filter).size());
+    }
+
+    @Test
+    void rejectsInvalidFilters() {
+        assertThrows(InvalidEventFilterException.class,
+            () -> ids(filter(null, null, LocalDate.now(), LocalDate.now().minusDays(1), List.of(), null)));
+        assertThrows(InvalidEventFilterException.class,
+            () -> ids(filter(null, null, null, null, List.of(), "x")));
+    }
+
+    @Test
+    void explainReportsFullScans() {
+        assertTrue(explain("select id from events where venue = ?").contains("tableScan"));
+    }
+
+    @Test
+    void everyFilterCombinationIsIndexDriven() {
+        LocalDate today = LocalDate.now();
+        List<Long> tags = List.of(session.getId());
+        List<EventService.Filter> combinations = List.of(
+            filter(null, null, null, null, List.of(), null),
+            filter("Ireland", null, null, null, List.of(), null),
+            filter(null, "Galway", null, null, List.of(), null),
+            filter("Ireland", "Galway", null, null, List.of(), null),
+            filter(null, null, today, today.plusDays(30), List.of(), null),
+            filter("Ireland", null, today, today.plusDays(30), List.of(), null),
+            filter(null, "Galway", today, today.plusDays(30), List.of(), null),
+            filter(null, null, null, null, List.of(), "ceili"),
+            filter(null, null, null, null, tags, null),
+            filter(null, null, today, null, tags, null),
+            filter("Ireland", "Galway", today, today.plusDays(30), tags, "ceili")
+        );
+
+        for (EventService.Filter filter : combinations) {
+            SqlRecorder.STATEMENTS.clear();
+            eventService.search(filter, PageRequest.of(0, 10));
+
+            List<String> queries = SqlRecorder.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("from events"))
+                .toList();
+            assertFalse(queries.isEmpty(), "no query recorded for " + filter);
+            for (String sql : queries) {
+                String plan = explain(sql);
+                assertFalse(plan.contains("tableScan"), filter + " scans a table:\n" + plan);
+            }
+        }
+    }
+
+    // helpers
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    // план H2 без значений параметров: выбор индекса не зависит от них
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql);
+                 ResultSet rs = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private List<Long> ids(EventService.Filter filter) {
+        return eventService.search(filter, PageRequest.of(0, 10)).stream()
+            .map(EventSummary::id)
+            .toList();
+    }
+
+    private static EventService.Filter filter(String country, String city, LocalDate from, LocalDate to,
+                                              Collection<Long> tags, String text) {
+        return new EventService.Filter(country, city, from, to, tags, TagIndexService.Mode.ALL, List.of(), text);
+    }
+
+    private Event event(User author, String title, String venue, String city, String country,
+                        LocalDateTime dateTime, Set<Tag> tags) {
+        return eventRepository.save(Event.builder()
+            .title(title)
+            .description(title)
+            .dateTime(dateTime)
+            .city(city)
+            .country(country)
+            .venue(venue)
+            .author(author)
+            .tags(new HashSet<>(tags))
+            .build());
+    }
+}
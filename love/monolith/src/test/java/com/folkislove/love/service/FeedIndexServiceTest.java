@@ -0,0 +1,96 @@
+package com.folkislove.love.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FeedIndexServiceTest {
+
+    private FeedIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        // вне транзакции изменения применяются сразу
+        index = new FeedIndexService(null, 3);
+    }
+
+    @Test
+    void mergesTagListsNewestFirstWithoutDuplicates() {
+        index.postTagsChanged(1L, Set.of(), Set.of(10L));
+        index.postTagsChanged(2L, Set.of(), Set.of(20L));
+        index.postTagsChanged(3L, Set.of(), Set.of(10L, 20L));
+        index.postTagsChanged(4L, Set.of(), Set.of(30L));
+
+        FeedIndexService.Recent recent = index.recent(List.of(10L, 20L, 99L), Long.MAX_VALUE, 10);
+
+        assertEquals(List.of(3L, 2L, 1L), recent.ids());
+        assertEquals(0, recent.horizon());
+    }
+
+    @Test
+    void continuesBelowCursorAndStopsAtLimit() {
+        for (long id = 1; id <= 3; id++) {
+            index.postTagsChanged(id, Set.of(), Set.of(10L));
+            index.postTagsChanged(id + 10, Set.of(), Set.of(20L));
+        }
+
+        assertEquals(List.of(13L, 12L), index.recent(List.of(10L, 20L), Long.MAX_VALUE, 2).ids());
+        assertEquals(List.of(11L, 3L, 2L), index.recent(List.of(10L, 20L), 12L, 3).ids());
+    }
+
+    @Test
+    void trimmedListStopsAtHorizon() {
+        for (long id = 1; id <= 5; id++) {
+            index.postTagsChanged(id, Set.of(), Set.of(10L));
+        }
+        index.postTagsChanged(6L, Set.of(), Set.of(20L));
+
+        FeedIndexService.Recent recent = index.recent(List.of(10L, 20L), Long.MAX_VALUE, 10);
+
+        // у тега 10 в памяти только 5, 4, 3: пост 2 и старше могут быть только в БД
+        assertEquals(List.of(6L, 5L, 4L, 3L), recent.ids());
+        assertEquals(2, recent.horizon());
+    }
+
+    @Test
+    void retaggingMovesPostBetweenLists() {
+        index.postTagsChanged(1L, Set.of(), Set.of(10L));
+        index.postTagsChanged(1L, Set.of(10L), Set.of(20L));
+
+        assertEquals(List.of(), index.recent(List.of(10L), Long.MAX_VALUE, 10).ids());
+        assertEquals(List.of(1L), index.recent(List.of(20L), Long.MAX_VALUE, 10).ids());
+
+        index.postTagsChanged(1L, Set.of(20L), Set.of());
+
+        assertEquals(List.of(), index.recent(List.of(20L), Long.MAX_VALUE, 10).ids());
+    }
+
+    @Test
+    void changesDuringRebuildSurviveTheSwap() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        FeedIndexService rebuilt = new FeedIndexService(jdbcTemplate, 3);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(10L);
+        when(row.getLong(2)).thenReturn(1L);
+        doAnswer(invocation -> {
+            // пост 2 закоммичен, пока БД читалась, и в прочитанное не попал
+            rebuilt.postTagsChanged(2L, Set.of(), Set.of(10L));
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        rebuilt.rebuild();
+
+        assertEquals(List.of(2L, 1L), rebuilt.recent(List.of(10L), Long.MAX_VALUE, 10).ids());
+    }
+}
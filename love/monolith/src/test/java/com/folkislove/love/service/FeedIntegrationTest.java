@@ -0,0 +1,112 @@
+package com.folkislove.love.service;
+
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.PostSummary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.folkislove.love.service.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "feed.per-tag-capacity=2"
+})
+class FeedIntegrationTest {
+
+    @Autowired private PostService postService;
+    @Autowired private UserService userService;
+    @Autowired private TagService tagService;
+    @Autowired private FeedIndexService feedIndexService;
+    @Autowired private PostPurgeService postPurgeService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final List<Long> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        login(saveUser(userRepository, "reader"));
+
+        Long folk = tagRepository.save(Tag.builder().name("feed-folk").build()).getId();
+        Long dance = tagRepository.save(Tag.builder().name("feed-dance").build()).getId();
+        Long other = tagRepository.save(Tag.builder().name("feed-other").build()).getId();
+        userService.addInterest(folk);
+        userService.addInterest(dance);
+
+        for (int i = 0; i < 4; i++) {
+            expected.add(post(postService, Set.of(folk)));
+            expected.add(post(postService, Set.of(folk, dance)));
+            post(postService, Set.of(other));
+        }
+        feedIndexService.rebuild();
+        expected.sort((a, b) -> Long.compare(b, a));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        postPurgeService.purgeTombstones();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+        tagRepository.deleteAll();
+        tagService.refresh();
+        feedIndexService.rebuild();
+    }
+
+    @Test
+    void pagesThroughMemoryAndDatabaseWithoutGapsOrDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<PostSummary> page = postService.getFeed(after, 3);
+            page.getContent().forEach(post -> seen.add(post.id()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void postTombstonedElsewhereDoesNotShortenThePage() {
+        // tombstone мимо PostService, как с другого узла: индекс этого узла о нем не знает
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> postRepository.markDeleted(expected.get(0), LocalDateTime.now())
+        );
+
+        CursorPage<PostSummary> page = postService.getFeed(null, 1);
+
+        assertEquals(List.of(expected.get(1)), page.getContent().stream().map(PostSummary::id).toList());
+        assertTrue(page.isHasNext());
+    }
+
+    @Test
+    void newPostAppearsOnTopAfterCommit() {
+        Long folk = tagRepository.findAll().stream()
+            .filter(tag -> tag.getName().equals("feed-folk")).findFirst().orElseThrow().getId();
+        Long created = post(postService, Set.of(folk));
+
+        CursorPage<PostSummary> page = postService.getFeed(null, 2);
+
+        assertEquals(created, page.getContent().get(0).id());
+        assertTrue(page.isHasNext());
+    }
+}
@@ -2,6 +2,7 @@ package com.folkislove.love.service;
 
 import com.folkislove.love.exception.custom.JwtAuthenticationException;
 import com.folkislove.love.model.User;
+import com.folkislove.love.security.JwtClaims;
 import com.folkislove.common.enums.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -78,6 +79,67 @@ class JwtServiceTest {
         assertTrue(exc.getMessage().contains("Invalid JWT token"));
     }
 
+    @Test
+    void parseTokenShouldReturnVerifiedClaims() {
+        var longLivedService = new JwtService(SECRET, 60_000);
+        User user = generateUser();
+        String token = longLivedService.generateToken(user);
+
+        JwtClaims claims = longLivedService.parseToken(token);
+
+        assertEquals(user.getUsername(), claims.username());
+        assertEquals(user.getRole(), claims.role());
+        assertNotNull(claims.expiresAt());
+    }
+
+    @Test
+    void parseTokenShouldExposeUserIdAndGeneration() {
+        var longLivedService = new JwtService(SECRET, 60_000);
+        User user = User.builder().id(42L).username("user1").role(Role.ADMIN).build();
+
+        JwtClaims claims = longLivedService.parseToken(longLivedService.generateToken(user, 3));
+
+        assertEquals(42L, claims.userId());
+        assertEquals(3L, claims.generation());
+        assertEquals(Role.ADMIN, claims.role());
+    }
+
+    @Test
+    void parseTokenShouldReuseVerifiedClaimsForSameToken() {
+        var longLivedService = new JwtService(SECRET, 60_000);
+        String token = longLivedService.generateToken(generateUser());
+
+        JwtClaims first = longLivedService.parseToken(token);
+        JwtClaims second = longLivedService.parseToken(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void parseTokenShouldRejectCachedTokenAfterExpiration() throws InterruptedException {
+        // exp хранится с точностью до секунды
+        var shortLivedService = new JwtService(SECRET, 1500);
+        String token = shortLivedService.generateToken(generateUser());
+
+        shortLivedService.parseToken(token);
+        Thread.sleep(2600);
+
+        var exc = assertThrows(JwtAuthenticationException.class,
+                () -> shortLivedService.parseToken(token));
+        assertEquals("JWT token expired", exc.getMessage());
+    }
+
+    @Test
+    void parseTokenShouldRejectTamperedToken() {
+        var longLivedService = new JwtService(SECRET, 60_000);
+        String token = longLivedService.generateToken(generateUser());
+        longLivedService.parseToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThrows(JwtAuthenticationException.class, () -> longLivedService.parseToken(tampered));
+    }
+
     // private helper
 
     User generateUser() {
@@ -0,0 +1,148 @@
+package com.folkislove.love.service;
+
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.model.Comment;
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.repository.EventRepository;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.EventSummary;
+import com.folkislove.love.repository.projection.PostSummary;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class KeysetPaginationTest {
+
+    private static final int ROWS = 23;
+    private static final int SIZE = 5;
+
+    @Autowired private PostService postService;
+    @Autowired private EventService eventService;
+    @Autowired private UpcomingEventIndexService upcomingEventIndexService;
+    @Autowired private CommentService commentService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private EventRepository eventRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        User author = userRepository.save(User.builder()
+            .username("scroller")
+            .email("scroller@example.com")
+            .passwordHash("hash")
+            .build());
+
+        for (int i = 0; i < ROWS; i++) {
+            post = postRepository.save(Post.builder()
+                .title("Post " + i)
+                .content("Content " + i)
+                .author(author)
+                .build());
+            eventRepository.save(Event.builder()
+                .title("Event " + i)
+                .description("Description " + i)
+                // по два события на одно время - порядок держится на id
+                .dateTime(LocalDateTime.now().plusDays(1 + i / 2).withNano(0))
+                .city("Yerevan")
+                .country("Armenia")
+                .author(author)
+                .build());
+        }
+        for (int i = 0; i < ROWS; i++) {
+            commentRepository.save(Comment.builder()
+                .post(post)
+                .author(author)
+                .content("Comment " + i)
+                .build());
+        }
+        upcomingEventIndexService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void postsAreWalkedNewestFirstWithoutGapsOrCounts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PostSummary> seen = walk(after -> postService.getPostsAfter(after, SIZE));
+
+        assertEquals(ROWS, seen.size());
+        assertEquals(
+            seen.stream().sorted(Comparator.comparing(PostSummary::createdAt)
+                .thenComparing(PostSummary::id).reversed()).toList(),
+            seen
+        );
+        // на каждую из 5 страниц: страница + теги, count не нужен
+        assertTrue(statistics.getPrepareStatementCount() <= 10);
+    }
+
+    @Test
+    void upcomingEventsAreWalkedSoonestFirstAcrossEqualTimes() {
+        List<EventSummary> seen = walk(after -> eventService.getUpcomingEventsAfter(after, SIZE));
+
+        assertEquals(ROWS, seen.size());
+        assertEquals(
+            seen.stream().sorted(Comparator.comparing(EventSummary::dateTime)
+                .thenComparing(EventSummary::id)).toList(),
+            seen
+        );
+    }
+
+    @Test
+    void commentsAreWalkedInWritingOrder() {
+        List<Comment> seen = walk(after -> commentService.getCommentsByPostIdAfter(post.getId(), after, SIZE));
+
+        assertEquals(ROWS, seen.size());
+        assertEquals("Comment 0", seen.get(0).getContent());
+        assertEquals("Comment " + (ROWS - 1), seen.get(ROWS - 1).getContent());
+        assertEquals("scroller", seen.get(ROWS - 1).getAuthor().getUsername());
+    }
+
+    private static <T> List<T> walk(Function<String, CursorPage<T>> fetch) {
+        List<T> seen = new ArrayList<>();
+        String after = "";
+        while (true) {
+            CursorPage<T> page = fetch.apply(after);
+            seen.addAll(page.getContent());
+            if (!page.isHasNext()) {
+                return seen;
+            }
+            assertEquals(SIZE, page.getContent().size());
+            after = page.getNextCursor();
+        }
+    }
+}
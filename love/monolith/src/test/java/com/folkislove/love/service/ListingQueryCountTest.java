@@ -0,0 +1,144 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.Event;
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.EventRepository;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.EventSummary;
+import com.folkislove.love.repository.projection.PostSummary;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ListingQueryCountTest {
+
+    private static final int ROWS = 30;
+
+    @Autowired private PostService postService;
+    @Autowired private EventService eventService;
+    @Autowired private UpcomingEventIndexService upcomingEventIndexService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private EventRepository eventRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Tag folk;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User author = userRepository.save(User.builder()
+            .username("lister")
+            .email("lister@example.com")
+            .passwordHash("hash")
+            .build());
+        folk = tagRepository.save(Tag.builder().name("listing-folk").build());
+        Tag dance = tagRepository.save(Tag.builder().name("listing-dance").build());
+
+        for (int i = 0; i < ROWS; i++) {
+            postRepository.save(Post.builder()
+                .title("Post " + i)
+                .content("Content " + i)
+                .author(author)
+                .tags(Set.of(folk, dance))
+                .build());
+            eventRepository.save(Event.builder()
+                .title("Event " + i)
+                .description("Description " + i)
+                .dateTime(LocalDateTime.now().plusDays(i + 1))
+                .city("Yerevan")
+                .country("Armenia")
+                .author(author)
+                .tags(Set.of(folk))
+                .build());
+        }
+        upcomingEventIndexService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        postRepository.deleteAll();
+        eventRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void postPageCostsSameNumberOfQueriesRegardlessOfSize() {
+        long small = countQueries(() -> assertPosts(postService.getAllPosts(PageRequest.of(0, 5)), 5));
+        long large = countQueries(() -> assertPosts(postService.getAllPosts(PageRequest.of(0, 25)), 25));
+
+        assertEquals(small, large);
+        assertTrue(large <= 3, "page + count + tags, was " + large);
+    }
+
+    @Test
+    void postsByTagPageCostsSameNumberOfQueriesRegardlessOfSize() {
+        long small = countQueries(() -> assertPosts(postService.getPostsByTag(folk.getId(), PageRequest.of(0, 5)), 5));
+        long large = countQueries(() -> assertPosts(postService.getPostsByTag(folk.getId(), PageRequest.of(0, 25)), 25));
+
+        assertEquals(small, large);
+    }
+
+    @Test
+    void eventPagesCostSameNumberOfQueriesRegardlessOfSize() {
+        long small = countQueries(() -> assertEvents(eventService.getAllEvents(PageRequest.of(0, 5)), 5));
+        long large = countQueries(() -> assertEvents(eventService.getAllEvents(PageRequest.of(0, 25)), 25));
+        long upcoming = countQueries(() -> assertEvents(eventService.getUpcomingEvents(PageRequest.of(0, 25)), 25));
+
+        assertEquals(small, large);
+        assertTrue(large <= 3, "page + count + tags, was " + large);
+        assertEquals(0, upcoming, "upcoming events are served from memory");
+    }
+
+    // helpers
+
+    private long countQueries(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static void assertPosts(Page<PostSummary> page, int expectedSize) {
+        assertEquals(expectedSize, page.getNumberOfElements());
+        assertEquals(ROWS, page.getTotalElements());
+        page.forEach(post -> {
+            assertEquals("lister", post.authorUsername());
+            assertEquals(2, post.tags().size());
+        });
+    }
+
+    private static void assertEvents(Page<EventSummary> page, int expectedSize) {
+        assertEquals(expectedSize, page.getNumberOfElements());
+        page.forEach(event -> {
+            assertEquals("lister", event.authorUsername());
+            assertEquals(List.of("listing-folk"), event.tags());
+        });
+    }
+}
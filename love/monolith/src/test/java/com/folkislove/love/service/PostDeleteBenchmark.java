@@ -0,0 +1,88 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Удаление поста с тредом на 100k комментариев: tombstone, фоновая чистка пачками
+ * и, для сравнения, старый путь через каскад сущностей.
+ *
+ * Запуск: mvn test -Dtest=PostDeleteBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "posts.purge.interval-ms=3600000"
+})
+class PostDeleteBenchmark {
+
+    private static final int COMMENTS = 100_000;
+
+    @Autowired private PostPurgeService purgeService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from posts");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void deletePostWithHugeThread() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User author = userRepository.save(User.builder()
+            .username("bench")
+            .email("bench@example.com")
+            .passwordHash("hash")
+            .build());
+
+        Post tombstoned = seed(author, COMMENTS);
+        long start = System.nanoTime();
+        tx.executeWithoutResult(status -> purgeService.delete(tombstoned.getId()));
+        long tombstoneMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        long purged = purgeService.purge(tombstoned.getId());
+        long purgeMs = (System.nanoTime() - start) / 1_000_000;
+
+        // старый путь: postRepository.delete + cascade ALL грузит и удаляет комментарии по одному
+        Post cascaded = seed(author, COMMENTS);
+        start = System.nanoTime();
+        tx.executeWithoutResult(status -> postRepository.delete(postRepository.findById(cascaded.getId()).orElseThrow()));
+        long cascadeMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%d comments: tombstone %d ms, chunked purge %d ms (%d rows), entity cascade %d ms%n",
+            COMMENTS, tombstoneMs, purgeMs, purged, cascadeMs);
+    }
+
+    private Post seed(User author, int comments) {
+        Post post = postRepository.save(Post.builder().title("Viral").content("x").author(author).build());
+        List<Object[]> rows = new ArrayList<>(comments);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < comments; i++) {
+            rows.add(new Object[] { "comment " + i, post.getId(), author.getId(), now });
+        }
+        jdbcTemplate.batchUpdate(
+            "insert into comments (content, post_id, author_id, created_at) values (?, ?, ?, ?)", rows);
+        return post;
+    }
+}
@@ -0,0 +1,124 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.exception.custom.ResourceNotFoundException;
+import com.folkislove.love.model.Comment;
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.CommentRepository;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "posts.purge.chunk-size=7"
+})
+class PostPurgeServiceTest {
+
+    private static final int COMMENTS = 50;
+
+    @Autowired private PostPurgeService purgeService;
+    @Autowired private CommentService commentService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Post post;
+    private Post survivor;
+
+    @BeforeEach
+    void setUp() {
+        User author = userRepository.save(User.builder()
+            .username("purger")
+            .email("purger@example.com")
+            .passwordHash("hash")
+            .build());
+        Tag tag = tagRepository.save(Tag.builder().name("purge").build());
+        post = postRepository.save(Post.builder().title("Doomed").content("x").author(author).tags(Set.of(tag)).build());
+        survivor = postRepository.save(Post.builder().title("Kept").content("x").author(author).tags(Set.of(tag)).build());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            rows.add(new Object[] { "c" + i, post.getId(), author.getId(), LocalDateTime.now() });
+            rows.add(new Object[] { "c" + i, survivor.getId(), author.getId(), LocalDateTime.now() });
+        }
+        jdbcTemplate.batchUpdate(
+            "insert into comments (content, post_id, author_id, created_at) values (?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepository.deleteAll();
+        jdbcTemplate.update("delete from post_tags");
+        jdbcTemplate.update("delete from posts");
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void tombstonedPostIsHiddenUntilPurgedInChunks() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> purgeService.delete(post.getId()));
+
+        assertTrue(postRepository.findById(post.getId()).isEmpty());
+        assertEquals(2 * COMMENTS, commentRepository.count());
+
+        purgeService.purgeTombstones();
+
+        assertEquals(COMMENTS, commentRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "select count(*) from posts where id = ?", Integer.class, post.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "select count(*) from post_tags where post_id = ?", Integer.class, survivor.getId()));
+        assertTrue(postRepository.findById(survivor.getId()).isPresent());
+    }
+
+    @Test
+    void purgeReportsEveryCommentAcrossChunks() {
+        jdbcTemplate.update("update posts set deleted_at = ? where id = ?", LocalDateTime.now(), post.getId());
+
+        assertEquals(COMMENTS, purgeService.purge(post.getId()));
+    }
+
+    @Test
+    void commentsOfTombstonedPostAreNotFoundBeforePurge() {
+        Long commentId = commentRepository.findAll().stream()
+            .filter(comment -> comment.getPost().getId().equals(post.getId()))
+            .map(Comment::getId)
+            .findFirst()
+            .orElseThrow();
+        jdbcTemplate.update("update posts set deleted_at = ? where id = ?", LocalDateTime.now(), post.getId());
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> commentService.getCommentsByPostId(post.getId(), PageRequest.of(0, 10)));
+        assertThrows(ResourceNotFoundException.class,
+            () -> commentService.getCommentsByPostIdAfter(post.getId(), null, 10));
+        assertThrows(ResourceNotFoundException.class, () -> commentService.findCommentById(commentId));
+        Integer edited = new TransactionTemplate(transactionManager).execute(status ->
+            commentRepository.updateContentIfOwned(commentId, "edited", LocalDateTime.now(), 0L, true));
+        assertEquals(0, edited);
+
+        assertEquals(10, commentService.getCommentsByPostId(survivor.getId(), PageRequest.of(0, 10)).getNumberOfElements());
+        assertEquals(COMMENTS, commentService.getCommentsByPostId(survivor.getId(), PageRequest.of(0, 10)).getTotalElements());
+    }
+}
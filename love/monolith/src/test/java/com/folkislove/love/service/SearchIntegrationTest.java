@@ -0,0 +1,126 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.exception.custom.InvalidSearchQueryException;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static com.folkislove.love.service.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class SearchIntegrationTest {
+
+    @Autowired private SearchService searchService;
+    @Autowired private PostService postService;
+    @Autowired private CommentService commentService;
+    @Autowired private PostPurgeService postPurgeService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+
+    private Long dvorak;
+    private Long polka;
+
+    @BeforeEach
+    void setUp() {
+        login(saveUser(userRepository, "searcher"));
+
+        dvorak = post(postService, "Dvořák evening", "Slavonic Dances played by the village orchestra", Set.of());
+        polka = post(postService, "Polka night", "Bring your dancing shoes", Set.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        postPurgeService.purgeTombstones();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+        searchService.rebuild();
+    }
+
+    @Test
+    void findsPostsWithoutDiacritics() {
+        List<SearchService.Hit> hits = searchService.search("dvorak", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(SearchService.Kind.POST, hits.get(0).kind());
+        assertEquals(dvorak, hits.get(0).id());
+        assertEquals("Dvořák evening", hits.get(0).title());
+    }
+
+    @Test
+    void commentsPointToTheirPostAndFollowEdits() {
+        Long commentId = commentService.addComment(polka, "The accordion player was great").getId();
+
+        SearchService.Hit hit = searchService.search("accordion", 10).get(0);
+        assertEquals(SearchService.Kind.COMMENT, hit.kind());
+        assertEquals(polka, hit.postId());
+
+        commentService.editComment(commentId, "The fiddle player was great");
+        assertTrue(searchService.search("accordion", 10).isEmpty());
+        assertEquals(commentId, searchService.search("fiddle", 10).get(0).id());
+    }
+
+    @Test
+    void deletedPostAndItsCommentsDisappear() {
+        commentService.addComment(dvorak, "Slavonic forever");
+
+        postService.deletePost(dvorak);
+
+        assertTrue(searchService.search("slavonic", 10).isEmpty());
+    }
+
+    @Test
+    void commentsOfDeletedPostDoNotTakeTopSlots() {
+        commentService.addComment(dvorak, "Fiddle, fiddle and more fiddle");
+        Long kept = commentService.addComment(polka, "A fiddle too").getId();
+
+        postService.deletePost(dvorak);
+
+        List<SearchService.Hit> hits = searchService.search("fiddle", 1);
+        assertEquals(1, hits.size());
+        assertEquals(kept, hits.get(0).id());
+    }
+
+    @Test
+    void phraseQueryNeedsAdjacentWords() {
+        assertEquals(1, searchService.search("\"slavonic dances\"", 10).size());
+        assertTrue(searchService.search("\"dances slavonic\"", 10).isEmpty());
+    }
+
+    @Test
+    void snapshotRestoresIndex(@TempDir Path dir) {
+        ReflectionTestUtils.setField(searchService, "snapshotPath", dir.resolve("index.bin").toString());
+        try {
+            searchService.snapshot();
+            Long later = post(postService, "Later post", "written after the snapshot", Set.of());
+
+            searchService.load();
+
+            assertEquals(dvorak, searchService.search("orchestra", 10).get(0).id());
+            assertEquals(later, searchService.search("snapshot", 10).get(0).id());
+        } finally {
+            ReflectionTestUtils.setField(searchService, "snapshotPath", "");
+        }
+    }
+
+    @Test
+    void rejectsEmptyAndOverlongQueries() {
+        assertThrows(InvalidSearchQueryException.class, () -> searchService.search("  ", 10));
+        assertThrows(InvalidSearchQueryException.class, () -> searchService.search("?!", 10));
+        assertThrows(InvalidSearchQueryException.class,
+            () -> searchService.search("x".repeat(SearchService.MAX_QUERY_LENGTH + 1), 10));
+    }
+}
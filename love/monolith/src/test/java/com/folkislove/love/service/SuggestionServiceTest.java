@@ -0,0 +1,65 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.UserName;
+import com.folkislove.love.util.SuggestionIndex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SuggestionServiceTest {
+
+    private TagRepository tagRepository;
+    private UserRepository userRepository;
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        tagRepository = mock(TagRepository.class);
+        userRepository = mock(UserRepository.class);
+        suggestionService = new SuggestionService(tagRepository, userRepository,
+            new TagUsageService(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void changesDuringRebuildSurviveTheSwap() {
+        when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Polka").build()));
+        when(userRepository.findAllUserNames()).thenAnswer(invocation -> {
+            // пришли, пока шло чтение, и в прочитанное не попали
+            suggestionService.tagSaved(2L, null, "Polonaise");
+            suggestionService.userRegistered(7L, "polina");
+            return List.of(new UserName(5L, "paul"));
+        });
+
+        suggestionService.rebuild();
+
+        assertEquals(List.of("Polka", "Polonaise"), texts(suggestionService.suggestTags("pol", 10)));
+        assertEquals(List.of("paul", "polina"), texts(suggestionService.suggestUsers("p", 10)));
+    }
+
+    @Test
+    void replayedChangeAlreadyInSnapshotIsNotDuplicated() {
+        when(tagRepository.findAll()).thenAnswer(invocation -> {
+            suggestionService.tagSaved(1L, null, "Polka");
+            return List.of(Tag.builder().id(1L).name("Polka").build());
+        });
+        when(userRepository.findAllUserNames()).thenReturn(List.of());
+
+        suggestionService.rebuild();
+
+        assertEquals(List.of("Polka"), texts(suggestionService.suggestTags("pol", 10)));
+    }
+
+    private static List<String> texts(List<SuggestionIndex.Match> matches) {
+        return matches.stream().map(SuggestionIndex.Match::text).sorted().toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.folkislove.love.service;
+
+import com.folkislove.common.dto.request.PostRequest;
+import com.folkislove.love.exception.custom.ResourceNotFoundException;
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.folkislove.love.service.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TagBatchWriteTest {
+
+    private static final int TAGS = 10;
+
+    @Autowired private PostService postService;
+    @Autowired private TagService tagService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Set<Long> tagIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User author = saveUser(userRepository, "batcher");
+        tagIds = IntStream.range(0, TAGS)
+            .mapToObj(i -> tagRepository.save(Tag.builder().name("batch-" + i).build()).getId())
+            .collect(Collectors.toSet());
+
+        login(author);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        postRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+        tagService.refresh();
+    }
+
+    @Test
+    void createPostWithTenTagsCostsAFewStatements() {
+        tagService.refresh();
+
+        long statements = countStatements(() -> postService.createPost(request(tagIds)));
+
+        // SELECT автора + INSERT поста + один батч post_tags
+        assertTrue(statements <= 3, "was " + statements);
+        Long postId = postRepository.findAll().get(0).getId();
+        assertEquals(TAGS, postRepository.findWithAuthorAndTagsById(postId).orElseThrow().getTags().size());
+    }
+
+    @Test
+    void snapshotMissesAreResolvedWithOneQuery() {
+        // теги созданы в обход TagService, снимок о них не знает
+        long statements = countStatements(() -> tagService.getTagsByIds(tagIds));
+
+        assertTrue(statements <= 2, "was " + statements);
+    }
+
+    @Test
+    void editPostReplacesTagsInBatch() {
+        tagService.refresh();
+        Post post = postService.createPost(request(Set.of(tagIds.iterator().next())));
+
+        long statements = countStatements(() -> postService.editPost(post.getId(), request(tagIds)));
+
+        // SELECT поста + DELETE post_tags + один батч post_tags + UPDATE поста
+        assertTrue(statements <= 4, "was " + statements);
+    }
+
+    @Test
+    void unknownTagIdsAreReportedTogether() {
+        Set<Long> ids = new HashSet<>(tagIds);
+        ids.add(-1L);
+        ids.add(-2L);
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+            () -> postService.createPost(request(ids)));
+
+        assertEquals("Tag not found: [-2, -1]", ex.getMessage());
+    }
+
+    // helpers
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static PostRequest request(Set<Long> tagIds) {
+        PostRequest request = new PostRequest();
+        request.setTitle("Batched");
+        request.setContent("Ten tags");
+        request.setTagIds(tagIds);
+        return request;
+    }
+}
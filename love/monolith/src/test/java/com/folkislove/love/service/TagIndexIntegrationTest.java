@@ -0,0 +1,118 @@
+package com.folkislove.love.service;
+
+import com.folkislove.common.dto.request.PostRequest;
+import com.folkislove.love.exception.custom.InvalidTagQueryException;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.PostSummary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.folkislove.love.service.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class TagIndexIntegrationTest {
+
+    @Autowired private PostService postService;
+    @Autowired private TagService tagService;
+    @Autowired private TagIndexService tagIndexService;
+    @Autowired private PostPurgeService postPurgeService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+
+    private Long folk;
+    private Long dance;
+    private Long jazz;
+    private Long folkOnly;
+    private Long folkDance;
+    private Long danceJazz;
+
+    @BeforeEach
+    void setUp() {
+        login(saveUser(userRepository, "indexer"));
+
+        folk = tagRepository.save(Tag.builder().name("index-folk").build()).getId();
+        dance = tagRepository.save(Tag.builder().name("index-dance").build()).getId();
+        jazz = tagRepository.save(Tag.builder().name("index-jazz").build()).getId();
+
+        folkOnly = post(postService, Set.of(folk));
+        folkDance = post(postService, Set.of(folk, dance));
+        danceJazz = post(postService, Set.of(dance, jazz));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        postPurgeService.purgeTombstones();
+        postRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+        tagService.refresh();
+        tagIndexService.rebuild();
+    }
+
+    @Test
+    void allRequiresEveryTag() {
+        assertEquals(List.of(folkDance), ids(search(List.of(folk, dance), TagIndexService.Mode.ALL, List.of())));
+    }
+
+    @Test
+    void anyIsNewestFirstAndHonoursExclusions() {
+        Page<PostSummary> page = search(List.of(folk, dance), TagIndexService.Mode.ANY, List.of(jazz));
+
+        assertEquals(List.of(folkDance, folkOnly), ids(page));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of("index-dance", "index-folk"), page.getContent().get(0).tags().stream().sorted().toList());
+    }
+
+    @Test
+    void editAndDeleteUpdateIndexAfterCommit() {
+        PostRequest request = new PostRequest();
+        request.setTagIds(Set.of(jazz));
+        postService.editPost(folkOnly, request);
+        postService.deletePost(danceJazz);
+
+        assertEquals(List.of(folkOnly), ids(search(List.of(jazz), TagIndexService.Mode.ALL, List.of())));
+        assertEquals(List.of(folkDance), ids(search(List.of(folk), TagIndexService.Mode.ALL, List.of())));
+    }
+
+    @Test
+    void rebuildMatchesIncrementalState() {
+        postService.deletePost(folkDance);
+        tagIndexService.rebuild();
+
+        assertEquals(List.of(danceJazz), ids(search(List.of(dance), TagIndexService.Mode.ANY, List.of())));
+    }
+
+    @Test
+    void unknownModeAndEmptyTagsAreRejected() {
+        assertThrows(InvalidTagQueryException.class, () -> TagIndexService.Mode.parse("some"));
+        assertEquals(TagIndexService.Mode.ANY, TagIndexService.Mode.parse(" Any "));
+        assertThrows(InvalidTagQueryException.class,
+            () -> search(List.of(), TagIndexService.Mode.ALL, List.of()));
+    }
+
+    // helpers
+
+    private Page<PostSummary> search(List<Long> tagIds, TagIndexService.Mode mode, List<Long> excluded) {
+        return postService.searchByTags(tagIds, mode, excluded, PageRequest.of(0, 10));
+    }
+
+    private static List<Long> ids(Page<PostSummary> page) {
+        return page.getContent().stream().map(PostSummary::id).toList();
+    }
+}
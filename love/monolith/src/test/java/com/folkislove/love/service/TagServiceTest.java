@@ -3,7 +3,6 @@ package com.folkislove.love.service;
 import com.folkislove.love.exception.custom.ResourceNotFoundException;
 import com.folkislove.love.exception.custom.TagAlreadyExistsException;
 import com.folkislove.love.exception.custom.TagInUseException;
-import com.folkislove.love.model.Post;
 import com.folkislove.love.model.Tag;
 import com.folkislove.love.repository.TagRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +11,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,7 +36,8 @@ class TagServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        tagService = new TagService(tagRepository, currentUserService);
+        tagService = new TagService(tagRepository, currentUserService, mock(SuggestionService.class),
+            mock(UpcomingEventIndexService.class));
     }
 
     @Nested
@@ -57,6 +59,55 @@ class TagServiceTest {
 
             assertThrows(ResourceNotFoundException.class, () -> tagService.getTagById(1L));
         }
+
+        @Test
+        void servesFromSnapshotWithoutRepositoryLookup() {
+            when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Music").build()));
+
+            tagService.getTagById(1L);
+            Tag result = tagService.getTagById(1L);
+
+            assertEquals("Music", result.getName());
+            verify(tagRepository, times(1)).findAll();
+            verify(tagRepository, never()).findById(any());
+        }
+
+        @Test
+        void getTagsByIdsResolvesMissesWithOneQuery() {
+            when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Music").build()));
+            when(tagRepository.findAllById(any())).thenReturn(List.of(
+                Tag.builder().id(2L).name("Dance").build(),
+                Tag.builder().id(3L).name("Song").build()
+            ));
+
+            Set<Tag> result = tagService.getTagsByIds(List.of(1L, 2L, 3L));
+
+            assertEquals(3, result.size());
+            verify(tagRepository, times(1)).findAllById(List.of(2L, 3L));
+            verify(tagRepository, never()).findById(any());
+        }
+
+        @Test
+        void getTagsByIdsListsAllMissingIds() {
+            when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Music").build()));
+            when(tagRepository.findAllById(any())).thenReturn(List.of());
+
+            ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> tagService.getTagsByIds(List.of(1L, 7L, 5L)));
+
+            assertEquals("Tag not found: [5, 7]", ex.getMessage());
+        }
+
+        @Test
+        void getExistingTagsSkipsDeletedIds() {
+            when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Music").build()));
+            when(tagRepository.findAllById(any())).thenReturn(List.of(Tag.builder().id(2L).name("Dance").build()));
+
+            Map<Long, Tag> result = tagService.getExistingTags(List.of(1L, 2L, 9L));
+
+            assertEquals(Set.of(1L, 2L), result.keySet());
+            verify(tagRepository, times(1)).findAllById(List.of(2L, 9L));
+        }
     }
 
     @Nested
@@ -66,13 +117,39 @@ class TagServiceTest {
         void returnsPageOfTags() {
             Tag tag1 = Tag.builder().id(1L).name("Music").build();
             Tag tag2 = Tag.builder().id(2L).name("Dance").build();
-            Page<Tag> page = new PageImpl<>(List.of(tag1, tag2));
-
-            when(tagRepository.findAll(any(Pageable.class))).thenReturn(page);
+            when(tagRepository.findAll()).thenReturn(List.of(tag2, tag1));
 
             Page<Tag> result = tagService.getAllTags(Pageable.unpaged());
 
             assertEquals(2, result.getContent().size());
+            assertEquals(1L, result.getContent().get(0).getId());
+        }
+
+        @Test
+        void slicesSnapshotByPage() {
+            when(tagRepository.findAll()).thenReturn(List.of(
+                Tag.builder().id(1L).name("Music").build(),
+                Tag.builder().id(2L).name("Dance").build(),
+                Tag.builder().id(3L).name("Song").build()
+            ));
+
+            Page<Tag> result = tagService.getAllTags(PageRequest.of(1, 2));
+
+            assertEquals(3, result.getTotalElements());
+            assertEquals(List.of("Song"), result.getContent().stream().map(Tag::getName).toList());
+        }
+
+        @Test
+        void versionChangesOnlyWithContent() {
+            when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Music").build()));
+            String before = tagService.getTagsVersion();
+
+            tagService.refresh();
+            assertEquals(before, tagService.getTagsVersion());
+
+            when(tagRepository.findAll()).thenReturn(List.of(Tag.builder().id(1L).name("Folk").build()));
+            tagService.refresh();
+            assertNotEquals(before, tagService.getTagsVersion());
         }
     }
 
@@ -162,11 +239,12 @@ class TagServiceTest {
             doNothing().when(currentUserService).checkIsAdmin();
 
             Tag tag = Tag.builder().id(1L).name("Music").build();
-            tag.getPosts().add(mock(Post.class));
 
             when(tagRepository.findById(1L)).thenReturn(Optional.of(tag));
+            when(tagRepository.usageExists(1L)).thenReturn(1);
 
             assertThrows(TagInUseException.class, () -> tagService.deleteTag(1L));
+            verify(tagRepository, never()).delete(any());
         }
     }
 }
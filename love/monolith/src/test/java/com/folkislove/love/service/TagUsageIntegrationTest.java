@@ -0,0 +1,124 @@
+package com.folkislove.love.service;
+
+import com.folkislove.love.model.Post;
+import com.folkislove.love.model.Tag;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.TagRepository;
+import com.folkislove.love.repository.UserRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.profiles.active=test")
+class TagUsageIntegrationTest {
+
+    @Autowired private TagUsageService tagUsageService;
+    @Autowired private PostPurgeService postPurgeService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private PostRepository postRepository;
+    @Autowired private TagRepository tagRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User author;
+    private Tag used;
+    private Tag unused;
+
+    @BeforeEach
+    void setUp() {
+        author = userRepository.save(User.builder()
+            .username("usage")
+            .email("usage@example.com")
+            .passwordHash("hash")
+            .build());
+        used = tagRepository.save(Tag.builder().name("usage-used").build());
+        unused = tagRepository.save(Tag.builder().name("usage-unused").build());
+
+        for (int i = 0; i < 3; i++) {
+            postRepository.save(Post.builder()
+                .title("Post " + i)
+                .content("Content")
+                .author(author)
+                .tags(Set.of(used))
+                .build());
+        }
+        Post tombstoned = postRepository.findAll().get(0);
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> postRepository.markDeleted(tombstoned.getId(), LocalDateTime.now())
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from user_tags");
+        postPurgeService.purgeTombstones();
+        postRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+        tagUsageService.reconcile();
+    }
+
+    @Test
+    void reconcileCountsLinksOfLivePostsOnly() {
+        tagUsageService.reconcile();
+
+        assertEquals(2, tagUsageService.getUsage(used.getId()).posts());
+        assertEquals(0, tagUsageService.getUsage(unused.getId()).total());
+    }
+
+    @Test
+    void changeCommittedJustBeforeReconcileIsCountedOnce() throws Exception {
+        tagUsageService.reconcile();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<Future<?>> reconcile = new AtomicReference<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        // связь уже видна в БД, а дельта еще не применена
+                        reconcile.set(executor.submit(tagUsageService::reconcile));
+                        try {
+                            Thread.sleep(300);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+                jdbcTemplate.update("insert into user_tags (user_id, tag_id) values (?, ?)", author.getId(), unused.getId());
+                tagUsageService.interestAdded(unused.getId());
+            });
+            reconcile.get().get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, tagUsageService.getUsage(unused.getId()).users());
+    }
+
+    @Test
+    void inUseCheckSeesLinks() {
+        assertEquals(1, tagRepository.usageExists(used.getId()));
+        assertEquals(0, tagRepository.usageExists(unused.getId()));
+    }
+}
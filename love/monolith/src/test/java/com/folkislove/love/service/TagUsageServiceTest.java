@@ -0,0 +1,88 @@
+package com.folkislove.love.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TagUsageServiceTest {
+
+    private TagUsageService usageService;
+
+    @BeforeEach
+    void setUp() {
+        usageService = new TagUsageService(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void countsOnlyTheDifferenceBetweenTagSets() {
+        usageService.postTagsChanged(Set.of(), Set.of(1L, 2L));
+        usageService.postTagsChanged(Set.of(1L, 2L), Set.of(2L, 3L));
+
+        assertEquals(0, usageService.getUsage(1L).posts());
+        assertEquals(1, usageService.getUsage(2L).posts());
+        assertEquals(1, usageService.getUsage(3L).posts());
+    }
+
+    @Test
+    void keepsPostsEventsAndUsersApart() {
+        usageService.postTagsChanged(Set.of(), Set.of(1L));
+        usageService.eventTagsChanged(Set.of(), Set.of(1L));
+        usageService.eventTagsChanged(Set.of(), Set.of(1L));
+        usageService.interestAdded(1L);
+        usageService.interestRemoved(1L);
+
+        TagUsageService.Usage usage = usageService.getUsage(1L);
+
+        assertEquals(1, usage.posts());
+        assertEquals(2, usage.events());
+        assertEquals(0, usage.users());
+    }
+
+    @Test
+    void ranksByTotalUsageAndSkipsUnused() {
+        usageService.postTagsChanged(Set.of(), Set.of(1L, 2L, 3L));
+        usageService.eventTagsChanged(Set.of(), Set.of(2L));
+        usageService.interestAdded(2L);
+        usageService.interestAdded(3L);
+        usageService.postTagsChanged(Set.of(1L), Set.of());
+
+        List<Long> ranked = usageService.getMostUsed(10).stream()
+            .map(TagUsageService.Usage::tagId)
+            .toList();
+
+        assertEquals(List.of(2L, 3L), ranked);
+        assertEquals(List.of(2L), usageService.getMostUsed(1).stream().map(TagUsageService.Usage::tagId).toList());
+    }
+
+    @Test
+    void changesDuringReconcileSurviveTheSwap() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        TagUsageService reconciled = new TagUsageService(jdbcTemplate, mock(PlatformTransactionManager.class));
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn("p");
+        when(row.getLong(2)).thenReturn(1L);
+        when(row.getLong(3)).thenReturn(4L);
+        doAnswer(invocation -> {
+            // интерес добавлен, пока шел пересчет, и в снимок не попал
+            reconciled.interestAdded(1L);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        reconciled.reconcile();
+
+        assertEquals(4, reconciled.getUsage(1L).posts());
+        assertEquals(1, reconciled.getUsage(1L).users());
+    }
+}
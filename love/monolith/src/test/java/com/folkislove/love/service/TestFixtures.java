@@ -0,0 +1,54 @@
+package com.folkislove.love.service;
+
+import com.folkislove.common.dto.request.PostRequest;
+import com.folkislove.common.enums.Role;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.security.AuthenticatedUser;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+/**
+ * Общие заготовки интеграционных тестов сервисов: пользователь, вход под ним, пост.
+ * Имена пользователей должны быть свои в каждом тестовом классе.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    static User saveUser(UserRepository userRepository, String username) {
+        return saveUser(userRepository, username, Role.USER);
+    }
+
+    static User saveUser(UserRepository userRepository, String username, Role role) {
+        return userRepository.save(User.builder()
+            .username(username)
+            .email(username + "@example.com")
+            .passwordHash("hash")
+            .role(role)
+            .build());
+    }
+
+    static void login(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.authorities())
+        );
+    }
+
+    static Long post(PostService postService, Set<Long> tagIds) {
+        return post(postService, "Post", "Content", tagIds);
+    }
+
+    static Long post(PostService postService, String title, String content, Set<Long> tagIds) {
+        PostRequest request = new PostRequest();
+        request.setTitle(title);
+        request.setContent(content);
+        request.setTagIds(tagIds);
+        return postService.createPost(request).getId();
+    }
+}
@@ -0,0 +1,167 @@
+package com.folkislove.love.service;
+
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.exception.custom.InvalidFollowException;
+import com.folkislove.love.model.User;
+import com.folkislove.love.repository.PostRepository;
+import com.folkislove.love.repository.UserRepository;
+import com.folkislove.love.repository.projection.PostSummary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.folkislove.love.service.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.profiles.active=test",
+    "timeline.capacity=3",
+    "timeline.celebrity-followers=2",
+    "timeline.fan-out-async=false"
+})
+class TimelineIntegrationTest {
+
+    @Autowired private PostService postService;
+    @Autowired private UserService userService;
+    @Autowired private PostPurgeService postPurgeService;
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User reader;
+    private User writer;
+    private User celebrity;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        reader = saveUser(userRepository, "tl-reader");
+        writer = saveUser(userRepository, "tl-writer");
+        celebrity = saveUser(userRepository, "tl-celebrity");
+        stranger = saveUser(userRepository, "tl-stranger");
+
+        // у celebrity два подписчика - его посты не раздаются
+        login(stranger);
+        userService.follow("tl-celebrity");
+        login(reader);
+        userService.follow("tl-writer");
+        userService.follow("tl-celebrity");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        postPurgeService.purgeTombstones();
+        postRepository.deleteAll();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            userRepository.findAll().forEach(user -> userRepository.deleteFollowLinks(user.getId()))
+        );
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void mergesPushedAndPulledPostsAcrossPages() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.add(postAs(writer));
+            expected.add(postAs(celebrity));
+            postAs(stranger);
+        }
+        login(reader);
+        // буфер строится здесь из БД, дальше посты приходят раздачей
+        postService.getTimeline(null, 1);
+        for (int i = 0; i < 3; i++) {
+            expected.add(postAs(writer));
+            expected.add(postAs(celebrity));
+        }
+        login(reader);
+        expected.sort((a, b) -> Long.compare(b, a));
+
+        assertEquals(expected, readAll(2));
+    }
+
+    @Test
+    void deletedPostLeavesTimelineAndUnfollowDropsAuthor() {
+        Long kept = postAs(writer);
+        Long deleted = postAs(writer);
+        login(reader);
+        postService.getTimeline(null, 10);
+
+        login(writer);
+        postService.deletePost(deleted);
+        login(reader);
+        assertEquals(List.of(kept), readAll(10).stream().filter(id -> id <= deleted).toList());
+
+        userService.unfollow("tl-writer");
+        assertTrue(readAll(10).stream().noneMatch(id -> id.equals(kept)));
+    }
+
+    @Test
+    void postTombstonedElsewhereDoesNotShortenThePage() {
+        Long oldest = postAs(writer);
+        Long middle = postAs(writer);
+        Long newest = postAs(writer);
+        login(reader);
+        postService.getTimeline(null, 10);
+        // tombstone мимо PostService, как с другого узла: буфер этого узла о нем не знает
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> postRepository.markDeleted(newest, LocalDateTime.now())
+        );
+
+        CursorPage<PostSummary> page = postService.getTimeline(null, 1);
+
+        assertEquals(List.of(middle), page.getContent().stream().map(PostSummary::id).toList());
+        assertTrue(page.isHasNext());
+        assertEquals(List.of(oldest), postService.getTimeline(page.getNextCursor(), 1).getContent().stream()
+            .map(PostSummary::id).filter(id -> id >= oldest).toList());
+    }
+
+    @Test
+    void authorCrossingCelebrityThresholdIsPulledByLoadedTimelines() {
+        Long before = postAs(writer);
+        login(reader);
+        // writer в ленте reader раздается: у него один подписчик
+        postService.getTimeline(null, 10);
+
+        login(stranger);
+        userService.follow("tl-writer");
+        Long after = postAs(writer);
+
+        login(reader);
+        assertEquals(List.of(after, before), readAll(10).stream().filter(id -> id >= before).toList());
+    }
+
+    @Test
+    void cannotFollowYourself() {
+        assertThrows(InvalidFollowException.class, () -> userService.follow("tl-reader"));
+    }
+
+    // helpers
+
+    private Long postAs(User author) {
+        login(author);
+        return post(postService, Set.of());
+    }
+
+    private List<Long> readAll(int size) {
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<PostSummary> page = postService.getTimeline(after, size);
+            page.getContent().forEach(post -> seen.add(post.id()));
+            after = page.getNextCursor();
+        } while (after != null);
+        return seen;
+    }
+}
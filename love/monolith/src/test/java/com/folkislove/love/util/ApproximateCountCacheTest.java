@@ -0,0 +1,37 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApproximateCountCacheTest {
+
+    @Test
+    void reusesCountWithinTtl() {
+        ApproximateCountCache cache = new ApproximateCountCache(60_000);
+        AtomicLong calls = new AtomicLong();
+
+        assertEquals(5, cache.get("posts", () -> { calls.incrementAndGet(); return 5; }));
+        assertEquals(5, cache.get("posts", () -> { calls.incrementAndGet(); return 6; }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void keysAreCountedSeparately() {
+        ApproximateCountCache cache = new ApproximateCountCache(60_000);
+
+        assertEquals(1, cache.get("comments.post:1", () -> 1));
+        assertEquals(2, cache.get("comments.post:2", () -> 2));
+    }
+
+    @Test
+    void zeroTtlAlwaysCounts() {
+        ApproximateCountCache cache = new ApproximateCountCache(0);
+
+        assertEquals(5, cache.get("posts", () -> 5));
+        assertEquals(6, cache.get("posts", () -> 6));
+    }
+}
@@ -0,0 +1,64 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void rejectsOnceLimitIsReached() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, 1.5, 0.2, 100);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.release(10 * MS, 2);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void growsWhileLatencyIsStableUnderLoad() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(10 * MS, limit.getLimit());
+        }
+
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyDegrades() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 5, 100, 1.5, 0.2, 100);
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MS, limit.getLimit());
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(100 * MS, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() < before / 2, "limit should drop, was " + before + " now " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 5);
+    }
+
+    @Test
+    void doesNotGrowWhenUnderutilized() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MS, 1);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+}
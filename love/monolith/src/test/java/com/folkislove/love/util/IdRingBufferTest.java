@@ -0,0 +1,64 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdRingBufferTest {
+
+    @Test
+    void keepsNewestFirstAndEvictsOldest() {
+        IdRingBuffer buffer = new IdRingBuffer(3);
+        for (long id = 1; id <= 5; id++) {
+            buffer.add(id);
+        }
+
+        assertEquals(List.of(5L, 4L, 3L), buffer.below(Long.MAX_VALUE, 10));
+        assertEquals(2, buffer.horizon());
+    }
+
+    @Test
+    void outOfOrderAndDuplicateIds() {
+        IdRingBuffer buffer = new IdRingBuffer(4);
+        buffer.add(10);
+        buffer.add(30);
+        buffer.add(20);
+
+        assertFalse(buffer.add(20));
+        assertEquals(List.of(30L, 20L, 10L), buffer.below(Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void fullBufferRejectsOlderThanEverything() {
+        IdRingBuffer buffer = new IdRingBuffer(2);
+        buffer.add(5);
+        buffer.add(6);
+
+        assertFalse(buffer.add(1));
+        assertEquals(1, buffer.horizon());
+
+        // между хранимыми: вытесняет самый старый
+        buffer.add(7);
+        assertFalse(buffer.add(6));
+        assertEquals(List.of(7L, 6L), buffer.below(Long.MAX_VALUE, 10));
+        assertEquals(5, buffer.horizon());
+        assertFalse(buffer.add(4));
+    }
+
+    @Test
+    void pagesBelowCursorAndRemoves() {
+        IdRingBuffer buffer = new IdRingBuffer(8);
+        for (long id = 1; id <= 6; id++) {
+            buffer.add(id);
+        }
+
+        assertEquals(List.of(3L, 2L), buffer.below(4, 2));
+
+        assertTrue(buffer.remove(3));
+        assertFalse(buffer.remove(3));
+        assertEquals(List.of(4L, 2L, 1L), buffer.below(5, 10));
+        assertEquals(5, buffer.size());
+    }
+}
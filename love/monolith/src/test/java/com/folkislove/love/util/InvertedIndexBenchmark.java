@@ -0,0 +1,60 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Задержка поиска по миллиону коротких постов со словарем с неравномерными частотами.
+ * Запуск: mvn test -pl monolith -Dtest=InvertedIndexBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InvertedIndexBenchmark {
+
+    private static final int DOCS = Integer.getInteger("search.benchmark.docs", 1_000_000);
+    private static final int WORDS_PER_DOC = 12;
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void searchLatency() {
+        Random random = new Random(42);
+        InvertedIndex index = new InvertedIndex();
+
+        long buildStart = System.nanoTime();
+        for (int doc = 1; doc <= DOCS; doc++) {
+            index.put(doc, words(random, WORDS_PER_DOC));
+        }
+        System.out.printf("build: %d ms for %d docs%n", (System.nanoTime() - buildStart) / 1_000_000, index.size());
+
+        List<List<String>> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(words(random, 1 + random.nextInt(3)));
+        }
+        // прогрев JIT
+        queries.forEach(query -> index.search(query, List.of(), 20));
+
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            index.search(queries.get(i), List.of(), 20);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("search: p50 %d µs, p99 %d µs, max %d µs%n",
+            nanos[QUERIES / 2] / 1_000, nanos[QUERIES * 99 / 100] / 1_000, nanos[QUERIES - 1] / 1_000);
+    }
+
+    // Zipf-подобное распределение: несколько слов встречаются почти везде
+    private static List<String> words(Random random, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add("w" + (int) Math.floor(Math.pow(VOCABULARY, random.nextDouble())));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,118 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void ranksByTermFrequencyAndRarity() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, TextAnalyzer.tokens("polka dance night"));
+        index.put(2, TextAnalyzer.tokens("polka polka polka"));
+        index.put(3, TextAnalyzer.tokens("dance dance night"));
+        index.put(4, TextAnalyzer.tokens("waltz night"));
+
+        assertEquals(List.of(2, 1), docs(index.search(List.of("polka"), List.of(), 10)));
+        // редкий waltz весит больше частого night
+        assertEquals(4, index.search(List.of("waltz", "night"), List.of(), 10).get(0).doc());
+    }
+
+    @Test
+    void phraseRequiresAdjacentTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, TextAnalyzer.tokens("the red river valley"));
+        index.put(2, TextAnalyzer.tokens("river red valley"));
+        index.put(3, TextAnalyzer.tokens("red river"));
+
+        List<String> phrase = List.of("red", "river");
+        assertEquals(List.of(1, 3), docs(index.search(phrase, List.of(phrase), 10)).stream().sorted().toList());
+        assertEquals(List.of(), index.search(List.of("red", "sea"), List.of(List.of("red", "sea")), 10));
+    }
+
+    @Test
+    void replaceAndRemoveUpdatePostings() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(5, TextAnalyzer.tokens("old words"));
+        index.put(3, TextAnalyzer.tokens("other words"));
+        index.put(5, TextAnalyzer.tokens("new text"));
+
+        assertEquals(List.of(3), docs(index.search(List.of("words"), List.of(), 10)));
+        assertEquals(List.of(5), docs(index.search(List.of("new"), List.of(), 10)));
+
+        assertTrue(index.remove(5));
+        assertFalse(index.contains(5));
+        assertEquals(List.of(), index.search(List.of("new"), List.of(), 10));
+        assertEquals(1, index.size());
+        assertEquals(3, index.maxDoc());
+    }
+
+    @Test
+    void pruningReturnsSameTopScoresAsFullScan() {
+        Random random = new Random(7);
+        InvertedIndex index = new InvertedIndex();
+        for (int doc = 0; doc < 3_000; doc++) {
+            index.put(doc, randomWords(random, 5 + random.nextInt(30)));
+        }
+
+        for (int q = 0; q < 50; q++) {
+            List<String> query = randomWords(random, 1 + random.nextInt(4));
+            List<Float> top = scores(index.search(query, List.of(), 10));
+            List<Float> all = scores(index.search(query, List.of(), 3_000));
+
+            assertEquals(Math.min(10, all.size()), top.size());
+            for (int i = 0; i < top.size(); i++) {
+                // порядок сложения вкладов термов разный, отсюда расхождение в последних знаках
+                assertEquals(all.get(i), top.get(i), 1e-4f, "query " + query);
+            }
+        }
+    }
+
+    @Test
+    void snapshotRoundTrip() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, TextAnalyzer.tokens("the red river valley"));
+        index.put(7, TextAnalyzer.tokens("red red wine"));
+        index.put(4, TextAnalyzer.tokens("removed"));
+        index.remove(4);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        InvertedIndex restored = InvertedIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        List<String> phrase = List.of("red", "river");
+        assertEquals(2, restored.size());
+        assertEquals(index.search(List.of("red"), List.of(), 10), restored.search(List.of("red"), List.of(), 10));
+        assertEquals(List.of(1), docs(restored.search(phrase, List.of(phrase), 10)));
+        assertFalse(restored.contains(4));
+    }
+
+    // helpers
+
+    private static List<String> randomWords(Random random, int count) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // частоты слов неравномерны, как в живом тексте
+            words.add("w" + (int) Math.pow(random.nextInt(40), 2));
+        }
+        return words;
+    }
+
+    private static List<Integer> docs(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::doc).toList();
+    }
+
+    private static List<Float> scores(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::score).toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.folkislove.love.util;
+
+import com.folkislove.common.dto.response.CursorPage;
+import com.folkislove.love.exception.custom.InvalidCursorException;
+import com.folkislove.love.exception.custom.InvalidPageSizeException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 5, 1, 18, 30, 15, 123_456_000);
+
+    @Test
+    void encodedCursorRoundTrips() {
+        PageCursor cursor = new PageCursor(TIME, 42L);
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("|"));
+        assertEquals(cursor, PageCursor.decode(encoded));
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void garbageCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    @Test
+    void pageDropsExtraRowAndPointsCursorAtLastReturnedRow() {
+        CursorPage<Integer> page = PageCursor.page(List.of(1, 2, 3), 2, i -> new PageCursor(TIME, (long) i));
+
+        assertEquals(List.of(1, 2), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(new PageCursor(TIME, 2L), PageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage<Integer> page = PageCursor.page(List.of(1, 2), 2, i -> new PageCursor(TIME, (long) i));
+
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void sizeMustBeWithinBounds() {
+        assertThrows(InvalidPageSizeException.class, () -> PageCursor.limit(0));
+        assertThrows(InvalidPageSizeException.class, () -> PageCursor.limit(PageCursor.MAX_SIZE + 1));
+        assertEquals(11, PageCursor.limit(10).max());
+        assertEquals(PageCursor.MAX_SIZE + 1, PageCursor.limit(PageCursor.MAX_SIZE).max());
+    }
+}
@@ -0,0 +1,41 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RebuildJournalTest {
+
+    @Test
+    void appliesImmediatelyAndRecordsOnlyWhileOpen() {
+        RebuildJournal<List<String>> journal = new RebuildJournal<>();
+        List<String> current = new ArrayList<>();
+
+        journal.apply(current, target -> target.add("before"));
+        journal.open();
+        journal.apply(current, target -> target.add("during"));
+
+        List<String> fresh = new ArrayList<>(List.of("read"));
+        journal.replay(fresh);
+        journal.apply(fresh, target -> target.add("after"));
+
+        assertEquals(List.of("before", "during"), current);
+        assertEquals(List.of("read", "during", "after"), fresh);
+    }
+
+    @Test
+    void closedJournalReplaysNothing() {
+        RebuildJournal<List<String>> journal = new RebuildJournal<>();
+        journal.open();
+        journal.apply(new ArrayList<>(), target -> target.add("lost rebuild"));
+        journal.close();
+
+        List<String> fresh = new ArrayList<>();
+        journal.replay(fresh);
+
+        assertTrue(fresh.isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoaringBitmapTest {
+
+    @Test
+    void addRemoveContainsAcrossContainers() {
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 70_000, 5, 1);
+
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(2));
+
+        bitmap.remove(70_000);
+        bitmap.remove(1);
+        bitmap.remove(5);
+
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void denseContainerSwitchesToBitmapAndBack() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        IntStream.range(0, RoaringBitmap.ARRAY_MAX + 10).forEach(bitmap::add);
+
+        assertEquals(RoaringBitmap.ARRAY_MAX + 10, bitmap.cardinality());
+        assertTrue(bitmap.contains(RoaringBitmap.ARRAY_MAX + 5));
+
+        IntStream.range(0, 20).forEach(bitmap::remove);
+
+        assertEquals(RoaringBitmap.ARRAY_MAX - 10, bitmap.cardinality());
+        assertFalse(bitmap.contains(10));
+        assertTrue(bitmap.contains(20));
+    }
+
+    @Test
+    void setOperationsDoNotModifyOperands() {
+        RoaringBitmap a = RoaringBitmap.of(1, 2, 3, 100_000);
+        RoaringBitmap b = RoaringBitmap.of(2, 3, 4, 200_000);
+
+        assertArrayEquals(new int[] {3, 2}, a.and(b).pageDescending(0, 10));
+        assertArrayEquals(new int[] {200_000, 100_000, 4, 3, 2, 1}, a.or(b).pageDescending(0, 10));
+        assertArrayEquals(new int[] {100_000, 1}, a.andNot(b).pageDescending(0, 10));
+        assertEquals(4, a.cardinality());
+        assertEquals(4, b.cardinality());
+    }
+
+    @Test
+    void setOperationsOnMixedContainers() {
+        RoaringBitmap dense = new RoaringBitmap();
+        IntStream.range(0, 10_000).forEach(dense::add);
+        RoaringBitmap sparse = RoaringBitmap.of(5, 9_999, 10_000);
+
+        assertEquals(2, dense.and(sparse).cardinality());
+        assertEquals(10_001, dense.or(sparse).cardinality());
+        assertEquals(9_998, dense.andNot(sparse).cardinality());
+        assertEquals(1, sparse.andNot(dense).cardinality());
+    }
+
+    @Test
+    void pageDescendingSkipsOffset() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        IntStream.range(0, 200_000).filter(i -> i % 3 == 0).forEach(bitmap::add);
+
+        int[] page = bitmap.pageDescending(5, 3);
+
+        assertArrayEquals(new int[] {199_983, 199_980, 199_977}, page);
+        assertEquals(0, bitmap.pageDescending(bitmap.cardinality(), 10).length);
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap().add(-1));
+    }
+}
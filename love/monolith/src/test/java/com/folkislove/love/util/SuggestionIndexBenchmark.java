@@ -0,0 +1,76 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Задержка подсказок на 100k username: префиксные и с опечатками.
+ * Запуск: mvn test -pl monolith -Dtest=SuggestionIndexBenchmark -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class SuggestionIndexBenchmark {
+
+    private static final int NAMES = 100_000;
+    private static final int QUERIES = 5_000;
+
+    @Test
+    void suggestLatency() {
+        Random random = new Random(42);
+        Map<Long, String> names = new HashMap<>();
+        for (long id = 0; id < NAMES; id++) {
+            names.put(id, randomName(random));
+        }
+
+        SuggestionIndex index = new SuggestionIndex();
+        long buildStart = System.nanoTime();
+        index.replaceAll(names);
+        System.out.printf("build: %d ms for %d names%n", (System.nanoTime() - buildStart) / 1_000_000, index.size());
+
+        String[] prefixes = new String[QUERIES];
+        String[] typos = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = names.get((long) random.nextInt(NAMES));
+            prefixes[i] = name.substring(0, 1 + random.nextInt(Math.min(4, name.length())));
+            char[] chars = name.toCharArray();
+            chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+            typos[i] = new String(chars);
+        }
+
+        // прогрев JIT на обоих видах запросов, потом замер
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < QUERIES; i++) {
+                index.suggest(prefixes[i], 10, id -> id);
+                index.suggest(typos[i], 10, id -> id);
+            }
+        }
+
+        report("prefix", index, prefixes);
+        report("typo", index, typos);
+    }
+
+    private static void report(String label, SuggestionIndex index, String[] queries) {
+        long[] nanos = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            index.suggest(queries[i], 10, id -> id);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-6s p50 %6d us, p99 %6d us, max %6d us%n", label,
+            nanos[nanos.length / 2] / 1000, nanos[nanos.length * 99 / 100] / 1000, nanos[nanos.length - 1] / 1000);
+    }
+
+    private static String randomName(Random random) {
+        int length = 5 + random.nextInt(8);
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+}
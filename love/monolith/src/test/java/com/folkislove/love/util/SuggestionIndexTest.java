@@ -0,0 +1,80 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex();
+        index.replaceAll(Map.of(
+            1L, "Music",
+            2L, "Musical",
+            3L, "Museum",
+            4L, "Dance",
+            5L, "Folk"
+        ));
+    }
+
+    @Test
+    void prefixMatchesAreRankedByWeight() {
+        Map<Long, Long> usage = Map.of(1L, 5L, 2L, 50L, 3L, 1L);
+
+        List<String> result = texts(index.suggest("mus", 10, id -> usage.getOrDefault(id, 0L)));
+
+        assertEquals(List.of("Musical", "Music", "Museum"), result);
+    }
+
+    @Test
+    void prefixIsCaseInsensitiveAndLimited() {
+        assertEquals(List.of("Music"), texts(index.suggest("MUS", 1, id -> 0)));
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertEquals(List.of("Dance"), texts(index.suggest("dacne", 5, id -> 0)).subList(0, 1));
+        assertTrue(texts(index.suggest("muzic", 5, id -> 0)).contains("Music"));
+    }
+
+    @Test
+    void shortQueriesDoNotGoFuzzy() {
+        assertEquals(List.of(), index.suggest("fok", 5, id -> 0));
+    }
+
+    @Test
+    void putAndRemoveAreVisibleImmediately() {
+        index.put(6L, "Fiddle");
+        index.remove(5L, "Folk");
+
+        assertEquals(List.of("Fiddle"), texts(index.suggest("f", 5, id -> 0)));
+        assertFalse(texts(index.suggest("folx", 5, id -> 0)).contains("Folk"));
+    }
+
+    @Test
+    void typoInThePrefixStillFindsLongerNames() {
+        // перестановка, замена, пропуск и лишняя буква
+        assertEquals("Musical", texts(index.suggest("muiscal", 5, id -> 0)).get(0));
+        assertTrue(texts(index.suggest("mosic", 5, id -> 0)).contains("Musical"));
+        assertTrue(texts(index.suggest("msic", 5, id -> 0)).contains("Music"));
+        assertTrue(texts(index.suggest("dannce", 5, id -> 0)).contains("Dance"));
+    }
+
+    @Test
+    void removeIgnoresStaleIds() {
+        index.remove(99L, "Folk");
+
+        assertEquals(List.of("Folk"), texts(index.suggest("fol", 5, id -> 0)));
+    }
+
+    private static List<String> texts(List<SuggestionIndex.Match> matches) {
+        return matches.stream().map(SuggestionIndex.Match::text).toList();
+    }
+}
@@ -0,0 +1,31 @@
+package com.folkislove.love.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextAnalyzerTest {
+
+    @Test
+    void foldsDiacriticsAndCase() {
+        assertEquals(List.of("dvorak", "slavonic", "dances"), TextAnalyzer.tokens("Dvořák: Slavonic Dances"));
+        assertEquals(List.of("nandu", "cancion", "sao", "joao"), TextAnalyzer.tokens("Ñandú canción — São João"));
+    }
+
+    @Test
+    void foldsLettersWithoutDecomposition() {
+        assertEquals(List.of("lodz", "strasse", "oresund", "aeble"), TextAnalyzer.tokens("Łódź Straße Øresund Æble"));
+    }
+
+    @Test
+    void keepsCyrillicAndDigits() {
+        assertEquals(List.of("еще", "песня", "1970"), TextAnalyzer.tokens("Ещё песня, 1970!"));
+    }
+
+    @Test
+    void dropsOverlongTokens() {
+        assertEquals(List.of("ok"), TextAnalyzer.tokens("ok " + "x".repeat(TextAnalyzer.MAX_TOKEN_LENGTH + 1)));
+    }
+}